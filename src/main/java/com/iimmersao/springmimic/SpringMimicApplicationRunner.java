@@ -4,19 +4,25 @@ import ch.qos.logback.classic.LoggerContext;
 import com.iimmersao.springmimic.annotations.ComponentScan;
 import com.iimmersao.springmimic.client.RestClient;
 import com.iimmersao.springmimic.core.ApplicationContext;
+import com.iimmersao.springmimic.core.CodecRegistry;
 import com.iimmersao.springmimic.core.ConfigLoader;
+import com.iimmersao.springmimic.core.ExceptionHandler;
+import com.iimmersao.springmimic.core.TypeConverterRegistry;
 import com.iimmersao.springmimic.database.DatabaseClient;
 import com.iimmersao.springmimic.database.H2DatabaseClient;
 import com.iimmersao.springmimic.database.MongoDatabaseClient;
 import com.iimmersao.springmimic.database.MySqlDatabaseClient;
 import com.iimmersao.springmimic.routing.Port;
+import com.iimmersao.springmimic.routing.RouteHandlerFactory;
 import com.iimmersao.springmimic.routing.Router;
+import com.iimmersao.springmimic.security.TokenController;
 import com.iimmersao.springmimic.server.WebServer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.event.Level;
 
 import java.util.Arrays;
+import java.util.List;
 
 public class SpringMimicApplicationRunner {
 
@@ -34,6 +40,14 @@ public class SpringMimicApplicationRunner {
             // Load configuration
             ConfigLoader config = new ConfigLoader();
             context.registerBean(ConfigLoader.class, config);
+            // One codec registry for the whole application, so components can register serializers
+            // before routes resolve their readers and writers
+            CodecRegistry codecs = new CodecRegistry();
+            context.registerBean(CodecRegistry.class, codecs);
+            ExceptionHandler.setCodecRegistry(codecs);
+            // Likewise for converters of path variables and query parameters
+            TypeConverterRegistry converters = new TypeConverterRegistry();
+            context.registerBean(TypeConverterRegistry.class, converters);
             String level = config.get("logging.level");
             if (level != null) System.setProperty("LOG_LEVEL", level.trim());
 
@@ -63,18 +77,24 @@ public class SpringMimicApplicationRunner {
             // Create application context and manually register the client
             ApplicationContext springMimicContext = new ApplicationContext("com.iimmersao.springmimic");
             springMimicContext.registerBean(ConfigLoader.class, config);
+            springMimicContext.registerBean(CodecRegistry.class, codecs);
+            springMimicContext.registerBean(TypeConverterRegistry.class, converters);
 
             springMimicContext.registerDatabaseBean(DatabaseClient.class, databaseClient);
             springMimicContext.registerBean(ApplicationContext.class, context);
 
             Port port = new Port(config.getInt("server.port", 8080));
             springMimicContext.registerBean(Port.class, port);
-            RestClient restClient = new RestClient();
+            RestClient restClient = new RestClient(config, codecs);
             springMimicContext.registerBean(RestClient.class, restClient);
             springMimicContext.initialize(null);
             System.out.println("Initialised SpringMimic context");
             Router router = springMimicContext.getBean(Router.class);
             router.registerControllers(context.getControllers());
+            TokenController tokenController = springMimicContext.getBean(RouteHandlerFactory.class).createTokenController();
+            if (tokenController != null) {
+                router.registerControllers(List.of(tokenController));
+            }
             springMimicContext.injectDependencies();
             System.out.println("Injected SpringMimic dependencies");
 
@@ -0,0 +1,15 @@
+package com.iimmersao.springmimic.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * How long a handler returning a CompletableFuture (or another CompletionStage or Future) may
+ * take to complete it, overriding {@code server.async.timeoutMillis}. A future still pending
+ * after that is cancelled and the request gets 503. Must be positive: a route with no timeout
+ * fails to register.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface AsyncTimeout {
+    long millis();
+}
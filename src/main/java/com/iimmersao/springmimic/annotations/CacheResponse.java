@@ -0,0 +1,17 @@
+package com.iimmersao.springmimic.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Caches the serialized response of a GET handler for {@code ttlSeconds}. Entries are keyed
+ * by route, path variables and the listed query parameters (others do not vary the response),
+ * and with {@code perUser} by the authenticated user as well. Authentication and role checks
+ * still run on every request.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CacheResponse {
+    long ttlSeconds() default 60;
+    String[] queryParams() default {};
+    boolean perUser() default false;
+}
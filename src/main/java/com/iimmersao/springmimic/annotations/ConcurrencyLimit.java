@@ -0,0 +1,15 @@
+package com.iimmersao.springmimic.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Gives a handler method its own adaptive concurrency limiter instead of the global one.
+ * Values left at -1 fall back to the server.limiter.* settings.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ConcurrencyLimit {
+    int initialLimit() default -1;
+    int minLimit() default -1;
+    int maxLimit() default -1;
+}
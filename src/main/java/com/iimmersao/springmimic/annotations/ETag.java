@@ -0,0 +1,25 @@
+package com.iimmersao.springmimic.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Sends a strong ETag, a checksum of the serialized body, with a handler's responses and
+ * answers a matching If-None-Match with 304. Overrides {@code server.etag.enabled} for the
+ * handler, so {@code @ETag(false)} turns it off where it is enabled globally. Only GET handlers
+ * can have one: a write is never answered 304.
+ * <p>
+ * A GET handler whose response only depends on some entity types can name them instead:
+ * its ETag is then built from how often those types were written through the DatabaseClient,
+ * and a matching If-None-Match gets 304 without the handler being called. Only use this when
+ * all writes to those entities go through this application instance.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ETag {
+    boolean value() default true;
+
+    /**
+     * The entity types the response is built from; empty to checksum the body instead.
+     */
+    Class<?>[] entities() default {};
+}
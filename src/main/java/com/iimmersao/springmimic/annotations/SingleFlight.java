@@ -0,0 +1,14 @@
+package com.iimmersao.springmimic.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Coalesces identical concurrent GET requests to a handler: while one is being handled, the
+ * others with the same URI, query and user wait for it and are sent a copy of its response.
+ * A waiting request gives up with 503 after {@code timeoutMillis}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface SingleFlight {
+    long timeoutMillis() default 5000;
+}
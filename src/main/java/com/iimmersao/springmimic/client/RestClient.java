@@ -1,7 +1,5 @@
 package com.iimmersao.springmimic.client;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
@@ -9,11 +7,14 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.net.http.HttpTimeoutException;
 import java.time.Duration;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
 import com.iimmersao.springmimic.annotations.Bean;
+import com.iimmersao.springmimic.core.CodecRegistry;
 import com.iimmersao.springmimic.core.ConfigLoader;
 
 @Bean
@@ -25,28 +26,78 @@ public class RestClient {
     private final int maxRetries;
     private final int retryDelayMillis;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CodecRegistry codecs;
+    // Media type request bodies are sent in and responses are asked for
+    private final String format;
 
     public RestClient() {
-        this(null);
+        this(null, new CodecRegistry());
+    }
+
+    public RestClient(CodecRegistry codecs) {
+        this(null, codecs);
     }
 
     public RestClient(ConfigLoader config) {
+        this(config, new CodecRegistry());
+    }
+
+    public RestClient(ConfigLoader config, CodecRegistry codecs) {
+        this.codecs = codecs;
         if (config == null) {
             this.defaultHeaders = new HashMap<>();
             this.connectTimeoutMillis = 5000;
             this.readTimeoutMillis = 5000;
             this.maxRetries = 0;
             this.retryDelayMillis = 1000;
+            this.format = CodecRegistry.JSON;
         } else {
             this.defaultHeaders = config.getSubProperties("restclient.defaultHeaders.", Set.of("Accept", "Content-Type"));
             this.connectTimeoutMillis = config.getInt("restclient.connectTimeoutMillis", 5000);
             this.readTimeoutMillis = config.getInt("restclient.readTimeoutMillis", 5000);
             this.maxRetries = config.getInt("restclient.maxRetries", 0);
             this.retryDelayMillis = config.getInt("restclient.retryDelayMillis", 1000);
+            this.format = formatMediaType(config.get("restclient.format", "json"));
         }
     }
 
+    private RestClient(RestClient source, String format) {
+        this.codecs = source.codecs;
+        this.defaultHeaders = source.defaultHeaders;
+        this.connectTimeoutMillis = source.connectTimeoutMillis;
+        this.readTimeoutMillis = source.readTimeoutMillis;
+        this.maxRetries = source.maxRetries;
+        this.retryDelayMillis = source.retryDelayMillis;
+        this.format = format;
+    }
+
+    /**
+     * Returns a client with the same settings that sends request bodies in the given format
+     * (json, cbor or smile, or a media type) and asks for responses in it. Binary formats
+     * are smaller and faster to parse for service-to-service calls between SpringMimic
+     * applications, which answer in CBOR or Smile when asked to.
+     */
+    public RestClient withFormat(String format) {
+        return new RestClient(this, formatMediaType(format));
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    private String formatMediaType(String format) {
+        String mediaType = switch (format.trim().toLowerCase(Locale.ROOT)) {
+            case "json" -> CodecRegistry.JSON;
+            case "cbor" -> CodecRegistry.CBOR;
+            case "smile" -> CodecRegistry.SMILE;
+            default -> format.trim();
+        };
+        if (!codecs.supports(mediaType)) {
+            throw new IllegalArgumentException("Unsupported RestClient format: " + format);
+        }
+        return mediaType;
+    }
+
     // === GET ===
     public <T> T get(String url, Class<T> responseType) throws IOException {
         return get(url, responseType, null);
@@ -54,7 +105,7 @@ public class RestClient {
 
     public <T> T get(String url, Class<T> responseType, Map<String, String> headers) throws IOException {
         RestResponse response = executeWithRetries("GET", url, null, mergeHeaders(headers));
-        return deserialize(response.getBody(), responseType);
+        return deserialize(response, responseType);
     }
 
     public RestResponse getRaw(String url) throws IOException {
@@ -71,9 +122,9 @@ public class RestClient {
     }
 
     public <T> T post(String url, Object requestBody, Class<T> responseType, Map<String, String> headers) throws IOException {
-        String body = serialize(requestBody);
+        byte[] body = serialize(requestBody);
         RestResponse response = executeWithRetries("POST", url, body, mergeHeaders(headers));
-        return deserialize(response.getBody(), responseType);
+        return deserialize(response, responseType);
     }
 
     public RestResponse postRaw(String url, Object requestBody) throws IOException {
@@ -81,7 +132,7 @@ public class RestClient {
     }
 
     public RestResponse postRaw(String url, Object requestBody, Map<String, String> headers) throws IOException {
-        String body = serialize(requestBody);
+        byte[] body = serialize(requestBody);
         return executeWithRetries("POST", url, body, mergeHeaders(headers));
     }
 
@@ -91,9 +142,9 @@ public class RestClient {
     }
 
     public <T> T put(String url, Object requestBody, Class<T> responseType, Map<String, String> headers) throws IOException {
-        String body = serialize(requestBody);
+        byte[] body = serialize(requestBody);
         RestResponse response = executeWithRetries("PUT", url, body, mergeHeaders(headers));
-        return deserialize(response.getBody(), responseType);
+        return deserialize(response, responseType);
     }
 
     public RestResponse putRaw(String url, Object requestBody) throws IOException {
@@ -101,7 +152,7 @@ public class RestClient {
     }
 
     public RestResponse putRaw(String url, Object requestBody, Map<String, String> headers) throws IOException {
-        String body = serialize(requestBody);
+        byte[] body = serialize(requestBody);
         return executeWithRetries("PUT", url, body, mergeHeaders(headers));
     }
 
@@ -111,9 +162,9 @@ public class RestClient {
     }
 
     public <T> T patch(String url, Object requestBody, Class<T> responseType, Map<String, String> headers) throws IOException {
-        String body = serialize(requestBody);
+        byte[] body = serialize(requestBody);
         RestResponse response = executeWithRetries("PATCH", url, body, mergeHeaders(headers));
-        return deserialize(response.getBody(), responseType);
+        return deserialize(response, responseType);
     }
 
     public RestResponse patchRaw(String url, Object requestBody) throws IOException {
@@ -121,7 +172,7 @@ public class RestClient {
     }
 
     public RestResponse patchRaw(String url, Object requestBody, Map<String, String> headers) throws IOException {
-        String body = serialize(requestBody);
+        byte[] body = serialize(requestBody);
         return executeWithRetries("PATCH", url, body, mergeHeaders(headers));
     }
 
@@ -132,7 +183,7 @@ public class RestClient {
 
     public <T> T delete(String url, Class<T> responseType, Map<String, String> headers) throws IOException {
         RestResponse response = executeWithRetries("DELETE", url, null, mergeHeaders(headers));
-        return deserialize(response.getBody(), responseType);
+        return deserialize(response, responseType);
     }
 
     public RestResponse deleteRaw(String url) throws IOException {
@@ -145,29 +196,36 @@ public class RestClient {
 
     // === Internals ===
 
-    private <T> T deserialize(String body, Class<T> type) throws IOException {
+    private <T> T deserialize(RestResponse response, Class<T> type) throws IOException {
         if (type == String.class) {
             // no JSON parsing needed — just return raw string
             @SuppressWarnings("unchecked")
-            T result = (T) body;
+            T result = (T) response.getBody();
             return result;
         }
-        return objectMapper.readValue(body, type);
+        // The server may answer in JSON even when asked for a binary format
+        String contentType = response.getContentType();
+        String mediaType = contentType != null && CodecRegistry.isBinary(contentType) ? contentType : CodecRegistry.JSON;
+        return codecs.reader(mediaType, type).readValue(response.getBodyBytes());
     }
 
-    private String serialize(Object obj) throws IOException {
-        return objectMapper.writeValueAsString(obj);
+    private byte[] serialize(Object obj) throws IOException {
+        return codecs.writer(format, Object.class).writeValueAsBytes(obj);
     }
 
     private Map<String, String> mergeHeaders(Map<String, String> requestHeaders) {
         Map<String, String> merged = new HashMap<>(defaultHeaders);
+        if (CodecRegistry.isBinary(format)) {
+            merged.put("Content-Type", format);
+            merged.put("Accept", format + ", " + CodecRegistry.JSON + ";q=0.5");
+        }
         if (requestHeaders != null) {
             merged.putAll(requestHeaders);
         }
         return merged;
     }
 
-    private RestResponse executeWithRetries(String method, String url, String body, Map<String, String> headers) throws IOException {
+    private RestResponse executeWithRetries(String method, String url, byte[] body, Map<String, String> headers) throws IOException {
         int attempt = 0;
         while (true) {
             try {
@@ -185,7 +243,7 @@ public class RestClient {
         }
     }
 
-    private RestResponse executeRequest(String method, String url, String body, Map<String, String> headers) throws IOException {
+    private RestResponse executeRequest(String method, String url, byte[] body, Map<String, String> headers) throws IOException {
         try {
             HttpClient client = HttpClient.newBuilder()
                     .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
@@ -200,7 +258,7 @@ public class RestClient {
                 case "GET", "DELETE" -> builder.method(method, HttpRequest.BodyPublishers.noBody());
                 case "POST", "PUT", "PATCH" -> {
                     if (body != null) {
-                        builder.method(method, HttpRequest.BodyPublishers.ofString(body));
+                        builder.method(method, HttpRequest.BodyPublishers.ofByteArray(body));
                     } else {
                         builder.method(method, HttpRequest.BodyPublishers.noBody());
                     }
@@ -213,17 +271,18 @@ public class RestClient {
                 builder.header(entry.getKey(), entry.getValue());
             }
 
-            HttpResponse<String> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+            HttpResponse<byte[]> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
 
             int status = response.statusCode();
-            String responseBody = response.body();
+            byte[] responseBody = response.body();
 
             // ✅ Throw exception on non-2xx responses
             if (status < 200 || status >= 300) {
-                throw new RestClientException("HTTP " + status + ": " + responseBody, status, responseBody);
+                String text = new String(responseBody, StandardCharsets.UTF_8);
+                throw new RestClientException("HTTP " + status + ": " + text, status, text);
             }
 
-            return new RestResponse(status, responseBody);
+            return new RestResponse(status, responseBody, response.headers().firstValue("Content-Type").orElse(null));
 
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
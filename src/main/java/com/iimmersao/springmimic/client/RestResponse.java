@@ -1,19 +1,41 @@
 package com.iimmersao.springmimic.client;
 
+import java.nio.charset.StandardCharsets;
+
 public class RestResponse {
     private final int statusCode;
-    private final String body;
+    private final byte[] body;
+    private final String contentType;
 
     public RestResponse(int statusCode, String body) {
+        this(statusCode, body != null ? body.getBytes(StandardCharsets.UTF_8) : new byte[0], null);
+    }
+
+    public RestResponse(int statusCode, byte[] body, String contentType) {
         this.statusCode = statusCode;
         this.body = body;
+        this.contentType = contentType;
     }
 
     public int getStatusCode() {
         return statusCode;
     }
 
+    /**
+     * The body decoded as UTF-8 text; use {@link #getBodyBytes()} for CBOR or Smile responses.
+     */
     public String getBody() {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    public byte[] getBodyBytes() {
         return body;
     }
+
+    /**
+     * The response's Content-Type header, or null if it had none.
+     */
+    public String getContentType() {
+        return contentType;
+    }
 }
@@ -0,0 +1,197 @@
+package com.iimmersao.springmimic.core;
+
+import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.iimmersao.springmimic.annotations.Component;
+
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The framework's Jackson mappers, one per supported media type (JSON, XML and the binary
+ * CBOR and Smile formats), with an ObjectReader / ObjectWriter cached per media type and
+ * Java type so that serializers are looked up once per type rather than per call. Routes
+ * resolve the readers and writers for their parameter and return types when they are
+ * registered.
+ * <p>
+ * Custom serializers and modules are registered here, and apply to every format. Do it
+ * while the application starts (a component constructor that takes the CodecRegistry is a
+ * good place): readers and writers already handed out keep the configuration they were
+ * built with.
+ */
+@Component
+public class CodecRegistry {
+
+    public static final String JSON = "application/json";
+    public static final String XML = "application/xml";
+    public static final String CBOR = "application/cbor";
+    public static final String SMILE = "application/x-jackson-smile";
+    public static final String NDJSON = "application/x-ndjson";
+
+    private static final List<String> BINARY_TYPES = List.of(CBOR, SMILE);
+    private static final List<String> STREAM_TYPES = List.of(CBOR, SMILE, NDJSON);
+
+    private final List<Module> modules = new ArrayList<>();
+    private volatile Map<String, ObjectMapper> mappers = createMappers(List.of());
+
+    private final Map<String, Map<Type, ObjectReader>> readers = new ConcurrentHashMap<>();
+    private final Map<String, Map<Type, ObjectWriter>> writers = new ConcurrentHashMap<>();
+
+    private static Map<String, ObjectMapper> createMappers(List<Module> modules) {
+        ObjectMapper json = new ObjectMapper();
+        XmlMapper xml = new XmlMapper();
+        ObjectMapper cbor = new CBORMapper();
+        ObjectMapper smile = new SmileMapper();
+        for (ObjectMapper mapper : List.of(json, xml, cbor, smile)) {
+            for (Module module : modules) {
+                mapper.registerModule(module);
+            }
+        }
+        return Map.of(JSON, json, XML, xml, "text/xml", xml, CBOR, cbor, SMILE, smile);
+    }
+
+    /**
+     * The media type without parameters, lower-cased, e.g. "application/json" for
+     * "application/json; charset=UTF-8".
+     */
+    public static String baseType(String mediaType) {
+        int semicolon = mediaType.indexOf(';');
+        return (semicolon >= 0 ? mediaType.substring(0, semicolon) : mediaType).trim().toLowerCase(Locale.ROOT);
+    }
+
+    public boolean supports(String mediaType) {
+        return mediaType != null && mappers.containsKey(baseType(mediaType));
+    }
+
+    public static boolean isBinary(String mediaType) {
+        return mediaType != null && BINARY_TYPES.contains(baseType(mediaType));
+    }
+
+    /**
+     * Returns the binary format the Accept header asks for, or null to keep the route's own
+     * media type. A binary type is chosen when its quality is at least that of JSON (including
+     * wildcards), so a client that lists it at all while accepting JSON equally gets it.
+     */
+    public static String negotiateBinary(String accept) {
+        return negotiate(accept, BINARY_TYPES);
+    }
+
+    /**
+     * Like {@link #negotiateBinary}, for a route returning a stream of elements, which can
+     * also be written as newline-delimited JSON.
+     */
+    public static String negotiateStream(String accept) {
+        return negotiate(accept, STREAM_TYPES);
+    }
+
+    private static String negotiate(String accept, List<String> alternatives) {
+        if (accept == null) {
+            return null;
+        }
+        String best = null;
+        double bestQuality = 0;
+        double jsonQuality = 0;
+        for (String range : accept.split(",")) {
+            String[] parts = range.split(";");
+            String type = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException ignored) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (alternatives.contains(type) && quality > bestQuality) {
+                best = type;
+                bestQuality = quality;
+            } else if (type.equals(JSON) || type.equals("application/*") || type.equals("*/*")) {
+                jsonQuality = Math.max(jsonQuality, quality);
+            }
+        }
+        return best != null && bestQuality >= jsonQuality ? best : null;
+    }
+
+    public ObjectReader reader(String mediaType, Type type) {
+        ObjectMapper mapper = mapper(mediaType);
+        return readers.computeIfAbsent(baseType(mediaType), m -> new ConcurrentHashMap<>())
+                .computeIfAbsent(type, t -> mapper.readerFor(mapper.constructType(t)));
+    }
+
+    public ObjectWriter writer(String mediaType, Type type) {
+        ObjectMapper mapper = mapper(mediaType);
+        return writers.computeIfAbsent(baseType(mediaType), m -> new ConcurrentHashMap<>())
+                .computeIfAbsent(type, t -> writerFor(mapper, t));
+    }
+
+    public ObjectReader jsonReader(Type type) {
+        return reader(JSON, type);
+    }
+
+    public ObjectWriter jsonWriter(Type type) {
+        return writer(JSON, type);
+    }
+
+    public ObjectWriter xmlWriter(Type type) {
+        return writer(XML, type);
+    }
+
+    /**
+     * A writer that picks the serializer from each value's runtime class.
+     */
+    public ObjectWriter jsonWriter() {
+        return jsonWriter(Object.class);
+    }
+
+    // A writer bound to a declared type serializes every value as that type, which would drop
+    // the properties of subclasses, so only types that cannot be subclassed are prefetched.
+    // Containers are safe: their element serializers are still chosen per element.
+    private static ObjectWriter writerFor(ObjectMapper mapper, Type type) {
+        JavaType javaType = mapper.constructType(type);
+        boolean exact = Modifier.isFinal(javaType.getRawClass().getModifiers()) || javaType.isContainerType();
+        return exact && !javaType.isPrimitive() && !javaType.isJavaLangObject()
+                ? mapper.writerFor(javaType)
+                : mapper.writer();
+    }
+
+    // Mappers cache the serializers they have already built, so start from fresh ones
+    public synchronized void registerModule(Module module) {
+        modules.add(module);
+        mappers = createMappers(modules);
+        readers.clear();
+        writers.clear();
+    }
+
+    public <T> void registerSerializer(Class<? extends T> type, JsonSerializer<T> serializer) {
+        registerModule(new SimpleModule().addSerializer(type, serializer));
+    }
+
+    public <T> void registerDeserializer(Class<T> type, JsonDeserializer<? extends T> deserializer) {
+        registerModule(new SimpleModule().addDeserializer(type, deserializer));
+    }
+
+    public ObjectMapper mapper(String mediaType) {
+        ObjectMapper mapper = mappers.get(baseType(mediaType));
+        if (mapper == null) {
+            throw new IllegalArgumentException("Unsupported media type: " + mediaType);
+        }
+        return mapper;
+    }
+
+    public ObjectMapper getJsonMapper() {
+        return mapper(JSON);
+    }
+
+    public XmlMapper getXmlMapper() {
+        return (XmlMapper) mapper(XML);
+    }
+}
@@ -101,6 +101,27 @@ public class ConfigLoader {
         }
     }
 
+    public long getLong(String key, long defaultValue) {
+        try {
+            return Long.parseLong(properties.get(key));
+        } catch (Exception e) {
+            return defaultValue;
+        }
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        try {
+            return Double.parseDouble(properties.get(key));
+        } catch (Exception e) {
+            return defaultValue;
+        }
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = properties.get(key);
+        return value != null ? Boolean.parseBoolean(value.trim()) : defaultValue;
+    }
+
     public Map<String, String> getSubProperties(String prefix, Set<String> allowedKeys) {
         Map<String, String> result = new HashMap<>();
         for (Map.Entry<String, String> entry : properties.entrySet()) {
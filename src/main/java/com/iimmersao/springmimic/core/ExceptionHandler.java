@@ -1,6 +1,6 @@
 package com.iimmersao.springmimic.core;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iimmersao.springmimic.exceptions.PayloadTooLargeException;
 import com.iimmersao.springmimic.exceptions.RouteNotFoundException;
 import com.iimmersao.springmimic.exceptions.UnauthorizedException;
 import com.iimmersao.springmimic.web.ResponseFactory;
@@ -14,11 +14,18 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
 public class ExceptionHandler {
 
     private static final Logger log = LoggerFactory.getLogger(ExceptionHandler.class);
 
+    private static CodecRegistry codecs = new CodecRegistry();
+
+    public static void setCodecRegistry(CodecRegistry registry) {
+        codecs = registry;
+    }
+
     public static NanoHTTPD.Response handle(Exception e) {
 
         if (e instanceof UnauthorizedException) {
@@ -46,6 +53,20 @@ public class ExceptionHandler {
             return NanoHTTPD.newFixedLengthResponse(Status.NOT_IMPLEMENTED, "text/plain", e.getMessage());
         }
 
+        if (e instanceof PayloadTooLargeException) {
+            log.warn("Payload too large: {}", e.getMessage());
+            NanoHTTPD.Response response =
+                    createErrorResponse(Status.PAYLOAD_TOO_LARGE, "Payload too large", e.getMessage());
+            // The body was never read, so the connection cannot be reused
+            response.closeConnection(true);
+            return response;
+        }
+
+        if (e instanceof TimeoutException) {
+            log.warn("Timed out: {}", e.getMessage());
+            return ResponseFactory.serviceUnavailable("Timed out waiting for the handler to complete", 1);
+        }
+
         if (e instanceof RouteNotFoundException) {
             String rootMessage = "Route not found";
             log.warn("Route not found: {}", e.getMessage());
@@ -69,7 +90,7 @@ public class ExceptionHandler {
 
         String json;
         try {
-            json = new ObjectMapper().writeValueAsString(errorBody);
+            json = codecs.jsonWriter(Map.class).writeValueAsString(errorBody);
         } catch (Exception ex) {
             json = "{\"error\":\"" + message + "\"}";
         }
@@ -0,0 +1,14 @@
+package com.iimmersao.springmimic.core;
+
+/**
+ * Converts the text of a path variable or query parameter to the type a handler declares.
+ * Register implementations with the {@link TypeConverterRegistry}.
+ */
+@FunctionalInterface
+public interface TypeConverter<T> {
+
+    /**
+     * @throws IllegalArgumentException or another RuntimeException if the text is not a valid value
+     */
+    T convert(String value);
+}
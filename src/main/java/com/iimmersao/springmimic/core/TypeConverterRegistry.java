@@ -0,0 +1,103 @@
+package com.iimmersao.springmimic.core;
+
+import com.iimmersao.springmimic.annotations.Component;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.*;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The converters that turn path variables and query parameters into handler argument types.
+ * Routes look up the converter of each parameter when they are registered and keep it, so
+ * requests never search by type.
+ * <p>
+ * Strings, numbers (including double, BigDecimal and BigInteger), booleans, UUIDs, the
+ * java.time types and enums (by constant name, ignoring case) are supported out of the box.
+ * Other types, or different formats, can be registered while the application starts (a
+ * component constructor that takes the TypeConverterRegistry is a good place); routes
+ * registered earlier keep the converters they found.
+ */
+@Component
+public class TypeConverterRegistry {
+
+    private static final Map<Class<?>, Class<?>> WRAPPERS = Map.of(
+            int.class, Integer.class, long.class, Long.class, short.class, Short.class,
+            byte.class, Byte.class, double.class, Double.class, float.class, Float.class,
+            boolean.class, Boolean.class, char.class, Character.class);
+
+    private final Map<Class<?>, TypeConverter<?>> converters = new ConcurrentHashMap<>();
+
+    public TypeConverterRegistry() {
+        register(String.class, value -> value);
+        register(Integer.class, Integer::valueOf);
+        register(Long.class, Long::valueOf);
+        register(Short.class, Short::valueOf);
+        register(Byte.class, Byte::valueOf);
+        register(Double.class, Double::valueOf);
+        register(Float.class, Float::valueOf);
+        register(BigDecimal.class, BigDecimal::new);
+        register(BigInteger.class, BigInteger::new);
+        register(Boolean.class, TypeConverterRegistry::parseBoolean);
+        register(Character.class, TypeConverterRegistry::parseCharacter);
+        register(UUID.class, UUID::fromString);
+        register(LocalDate.class, LocalDate::parse);
+        register(LocalTime.class, LocalTime::parse);
+        register(LocalDateTime.class, LocalDateTime::parse);
+        register(OffsetDateTime.class, OffsetDateTime::parse);
+        register(ZonedDateTime.class, ZonedDateTime::parse);
+        register(Instant.class, Instant::parse);
+        register(Duration.class, Duration::parse);
+    }
+
+    /**
+     * Adds or replaces the converter for a type; for a primitive type, register its wrapper.
+     */
+    public <T> void register(Class<T> type, TypeConverter<? extends T> converter) {
+        converters.put(type, converter);
+    }
+
+    /**
+     * The converter for a parameter type, or null if there is none.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TypeConverter<?> converterFor(Class<?> type) {
+        Class<?> lookup = WRAPPERS.getOrDefault(type, type);
+        TypeConverter<?> converter = converters.get(lookup);
+        if (converter == null && lookup.isEnum()) {
+            converter = converters.computeIfAbsent(lookup, enumType -> enumConverter((Class) enumType));
+        }
+        return converter;
+    }
+
+    private static <E extends Enum<E>> TypeConverter<E> enumConverter(Class<E> type) {
+        E[] constants = type.getEnumConstants();
+        return value -> {
+            for (E constant : constants) {
+                if (constant.name().equalsIgnoreCase(value)) {
+                    return constant;
+                }
+            }
+            throw new IllegalArgumentException("No " + type.getSimpleName() + " constant " + value);
+        };
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if (value.equalsIgnoreCase("true")) {
+            return Boolean.TRUE;
+        }
+        if (value.equalsIgnoreCase("false")) {
+            return Boolean.FALSE;
+        }
+        throw new IllegalArgumentException("Expected 'true' or 'false'");
+    }
+
+    private static Character parseCharacter(String value) {
+        if (value.length() != 1) {
+            throw new IllegalArgumentException("Expected a single character");
+        }
+        return value.charAt(0);
+    }
+}
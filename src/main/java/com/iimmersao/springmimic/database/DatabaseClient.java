@@ -44,4 +44,9 @@ public interface DatabaseClient {
     boolean existsBy(Class<?> entityType, String fieldName, Object value);
 
     long countBy(Class<?> entityType, String fieldName, Object value);
+
+    /**
+     * Counts the saves, updates and deletes made through this client, per entity type.
+     */
+    EntityVersions getEntityVersions();
 }
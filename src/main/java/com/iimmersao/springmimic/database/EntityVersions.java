@@ -0,0 +1,44 @@
+package com.iimmersao.springmimic.database;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the writes made through a DatabaseClient, per entity type, so that a response built
+ * from some entity types can be known to be unchanged without querying them again.
+ * <p>
+ * A version only moves forward while the process runs; the random epoch tells one run's
+ * versions from another's. Writes made by other processes, or directly against the database,
+ * are not counted.
+ */
+public class EntityVersions {
+
+    private final long epoch = new SecureRandom().nextLong();
+    private final ConcurrentMap<Class<?>, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Records a write to an entity type. Called once the write is done (or has failed), so a
+     * version read before a query is never newer than the data the query sees. The write
+     * counts for the type's superclasses as well, so one made through a subclass or proxy of
+     * an entity still moves the entity's version.
+     */
+    public void changed(Class<?> entityType) {
+        for (Class<?> type = entityType; type != null && type != Object.class; type = type.getSuperclass()) {
+            versions.computeIfAbsent(type, key -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    /**
+     * The number of writes to an entity type so far.
+     */
+    public long get(Class<?> entityType) {
+        AtomicLong version = versions.get(entityType);
+        return version != null ? version.get() : 0;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+}
@@ -18,6 +18,7 @@ public class H2DatabaseClient implements DatabaseClient {
     private final String url;
     private final String username;
     private final String password;
+    private final EntityVersions versions = new EntityVersions();
 
     public H2DatabaseClient(ConfigLoader config) {
         this.url = config.get("h2.url");
@@ -110,6 +111,8 @@ public class H2DatabaseClient implements DatabaseClient {
 
         } catch (Exception e) {
             throw new RuntimeException("Failed to save entity", e);
+        } finally {
+            versions.changed(clazz);
         }
     }
 
@@ -185,6 +188,8 @@ public class H2DatabaseClient implements DatabaseClient {
 
         } catch (Exception e) {
             throw new RuntimeException("Failed to update entity", e);
+        } finally {
+            versions.changed(clazz);
         }
     }
 
@@ -200,6 +205,8 @@ public class H2DatabaseClient implements DatabaseClient {
 
         } catch (Exception e) {
             throw new RuntimeException("Failed to delete entity by ID", e);
+        } finally {
+            versions.changed(entityType);
         }
     }
 
@@ -214,6 +221,8 @@ public class H2DatabaseClient implements DatabaseClient {
 
         } catch (Exception e) {
             throw new RuntimeException("Failed to delete all entities", e);
+        } finally {
+            versions.changed(entityType);
         }
     }
 
@@ -326,6 +335,11 @@ public class H2DatabaseClient implements DatabaseClient {
         }
     }
 
+    @Override
+    public EntityVersions getEntityVersions() {
+        return versions;
+    }
+
     private boolean isValidField(Class<?> clazz, String fieldName) {
         for (Field field : clazz.getDeclaredFields()) {
             if (field.getName().equals(fieldName)) {
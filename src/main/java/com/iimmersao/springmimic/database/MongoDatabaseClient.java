@@ -22,6 +22,7 @@ import static com.mongodb.client.model.Filters.eq;
 public class MongoDatabaseClient implements DatabaseClient {
 
     private final MongoDatabase database;
+    private final EntityVersions versions = new EntityVersions();
 
     public MongoDatabaseClient(ConfigLoader config) {
         try {
@@ -36,8 +37,9 @@ public class MongoDatabaseClient implements DatabaseClient {
 
     @Override
     public <T> void save(T entity) {
+        Class<?> clazz = entity.getClass();
         try {
-            String collectionName = getCollectionName(entity.getClass());
+            String collectionName = getCollectionName(clazz);
             MongoCollection<Document> collection = database.getCollection(collectionName);
 
             Document doc = toBsonDocument(entity);
@@ -45,7 +47,7 @@ public class MongoDatabaseClient implements DatabaseClient {
 
             // Set generated ID back to entity
             ObjectId objectId = doc.getObjectId("_id");
-            Field idField = getIdField(entity.getClass());
+            Field idField = getIdField(clazz);
             idField.setAccessible(true);
             if (idField.getType() == String.class) {
                 idField.set(entity, objectId.toHexString());
@@ -54,6 +56,8 @@ public class MongoDatabaseClient implements DatabaseClient {
             }
         } catch (Exception e) {
             throw new DatabaseException("Failed to save entity", e);
+        } finally {
+            versions.changed(clazz);
         }
     }
 
@@ -94,8 +98,8 @@ public class MongoDatabaseClient implements DatabaseClient {
 
     @Override
     public <T> void updateById(T entity) {
+        Class<?> clazz = entity.getClass();
         try {
-            Class<?> clazz = entity.getClass();
             String collectionName = getCollectionName(clazz);
             MongoCollection<Document> collection = database.getCollection(collectionName);
 
@@ -112,6 +116,8 @@ public class MongoDatabaseClient implements DatabaseClient {
             collection.replaceOne(eq("_id", objectId), updatedDoc);
         } catch (Exception e) {
             throw new DatabaseException("Failed to update entity by ID", e);
+        } finally {
+            versions.changed(clazz);
         }
     }
 
@@ -128,6 +134,8 @@ public class MongoDatabaseClient implements DatabaseClient {
             collection.deleteOne(eq("_id", convertToObjectId(id)));
         } catch (Exception e) {
             throw new DatabaseException("Failed to delete entity by ID", e);
+        } finally {
+            versions.changed(entityType);
         }
     }
 
@@ -139,6 +147,8 @@ public class MongoDatabaseClient implements DatabaseClient {
             collection.deleteMany(new Document());
         } catch (Exception e) {
             throw new DatabaseException("Failed to delete all entities", e);
+        } finally {
+            versions.changed(entityType);
         }
     }
 
@@ -204,6 +214,11 @@ public class MongoDatabaseClient implements DatabaseClient {
         return collection.countDocuments(filter);
     }
 
+    @Override
+    public EntityVersions getEntityVersions() {
+        return versions;
+    }
+
     // ----------------------
     // Utility Methods
     // ----------------------
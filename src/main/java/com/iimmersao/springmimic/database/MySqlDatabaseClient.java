@@ -14,6 +14,7 @@ import java.util.stream.Collectors;
 public class MySqlDatabaseClient implements DatabaseClient {
 
     private final Connection connection;
+    private final EntityVersions versions = new EntityVersions();
     private ConfigLoader config;
 
     public MySqlDatabaseClient(ConfigLoader config) {
@@ -161,13 +162,15 @@ public class MySqlDatabaseClient implements DatabaseClient {
             }
         } catch (SQLException | IllegalAccessException e) {
             throw new DatabaseException("Failed to save entity", e);
+        } finally {
+            versions.changed(clazz);
         }
     }
 
     @Override
     public <T> void updateById(T entity) {
+        Class<?> clazz = entity.getClass();
         try {
-            Class<?> clazz = entity.getClass();
             String table = getTableName(clazz);
 
             Field idField = getIdField(clazz);
@@ -196,6 +199,8 @@ public class MySqlDatabaseClient implements DatabaseClient {
 
         } catch (Exception e) {
             throw new DatabaseException("Failed to update entity", e);
+        } finally {
+            versions.changed(clazz);
         }
     }
 
@@ -218,6 +223,8 @@ public class MySqlDatabaseClient implements DatabaseClient {
             }
         } catch (Exception e) {
             throw new DatabaseException("Failed to delete by ID", e);
+        } finally {
+            versions.changed(clazz);
         }
     }
 
@@ -231,6 +238,8 @@ public class MySqlDatabaseClient implements DatabaseClient {
             }
         } catch (Exception e) {
             throw new DatabaseException("Failed to delete all records", e);
+        } finally {
+            versions.changed(clazz);
         }
     }
 
@@ -343,6 +352,11 @@ public class MySqlDatabaseClient implements DatabaseClient {
         }
     }
 
+    @Override
+    public EntityVersions getEntityVersions() {
+        return versions;
+    }
+
     // ===== Helper Methods =====
 
     private boolean isValidField(Class<?> clazz, String fieldName) {
@@ -0,0 +1,7 @@
+package com.iimmersao.springmimic.exceptions;
+
+public class PayloadTooLargeException extends RuntimeException {
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
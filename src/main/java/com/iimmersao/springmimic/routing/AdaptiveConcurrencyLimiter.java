@@ -0,0 +1,140 @@
+package com.iimmersao.springmimic.routing;
+
+import com.iimmersao.springmimic.core.ConfigLoader;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency limit that adapts to observed latency, in the style of the gradient
+ * algorithm: while request round-trip times stay close to the best seen recently the
+ * limit grows, and as queueing inflates them the limit shrinks proportionally.
+ * <p>
+ * Acquire and release are lock-free. The limit is kept as the bits of a double in an
+ * AtomicLong and updated with compare-and-set after each sample; the minimum RTT is
+ * re-learned every {@code probeInterval} samples so it tracks changes in backend speed.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final long PROBE_INTERVAL = 1000;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+
+    private final AtomicLong limitBits;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong minRttNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      double rttTolerance, double smoothing) {
+        this.name = name;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+        double initial = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.limitBits = new AtomicLong(Double.doubleToRawLongBits(initial));
+    }
+
+    /**
+     * Creates a limiter from the server.limiter.* settings (defaults if config is null);
+     * the arguments, when not -1, override the initial, minimum and maximum limits.
+     */
+    public static AdaptiveConcurrencyLimiter fromConfig(String name, ConfigLoader config,
+                                                        int initialLimit, int minLimit, int maxLimit) {
+        int configuredInitial = config != null ? config.getInt("server.limiter.initialLimit", 20) : 20;
+        int configuredMin = config != null ? config.getInt("server.limiter.minLimit", 4) : 4;
+        int configuredMax = config != null ? config.getInt("server.limiter.maxLimit", 500) : 500;
+        return new AdaptiveConcurrencyLimiter(name,
+                initialLimit >= 0 ? initialLimit : configuredInitial,
+                minLimit >= 0 ? minLimit : configuredMin,
+                maxLimit >= 0 ? maxLimit : configuredMax,
+                config != null ? config.getDouble("server.limiter.rttTolerance", 1.5) : 1.5,
+                config != null ? config.getDouble("server.limiter.smoothing", 0.2) : 0.2);
+    }
+
+    /**
+     * Reserves a slot, to be handed back with {@link #release} once the request completes.
+     *
+     * @return false if the limit has been reached and the request should be rejected
+     */
+    public boolean tryAcquire() {
+        int limit = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param startNanos {@link System#nanoTime()} when the request started, to sample its round-trip time
+     */
+    public void release(long startNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        long rtt = System.nanoTime() - startNanos;
+        if (rtt > 0) {
+            onSample(rtt, inFlightAtCompletion);
+        }
+    }
+
+    private void onSample(long rtt, int inFlightAtCompletion) {
+        if (samples.incrementAndGet() % PROBE_INTERVAL == 0) {
+            minRttNanos.set(rtt);
+        } else {
+            minRttNanos.accumulateAndGet(rtt, Math::min);
+        }
+        long minRtt = minRttNanos.get();
+
+        while (true) {
+            long bits = limitBits.get();
+            double limit = Double.longBitsToDouble(bits);
+
+            // Don't grow the limit when traffic isn't using it
+            if (inFlightAtCompletion < limit / 2 && rtt <= minRtt * rttTolerance) {
+                return;
+            }
+
+            double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * minRtt / rtt));
+            double queueAllowance = Math.sqrt(limit);
+            double target = limit * gradient + queueAllowance;
+            double next = limit * (1 - smoothing) + target * smoothing;
+            next = Math.max(minLimit, Math.min(maxLimit, next));
+
+            if (limitBits.compareAndSet(bits, Double.doubleToRawLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getMinRttMicros() {
+        long minRtt = minRttNanos.get();
+        return minRtt == Long.MAX_VALUE ? 0 : minRtt / 1000;
+    }
+}
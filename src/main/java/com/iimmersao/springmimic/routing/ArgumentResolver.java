@@ -0,0 +1,10 @@
+package com.iimmersao.springmimic.routing;
+
+/**
+ * Produces the value of one controller method argument for a request.
+ * A route's resolvers are built once, when its RouteHandler is created.
+ */
+@FunctionalInterface
+interface ArgumentResolver {
+    Object resolve(RequestContext request) throws Exception;
+}
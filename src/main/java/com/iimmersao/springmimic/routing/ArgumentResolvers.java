@@ -0,0 +1,137 @@
+package com.iimmersao.springmimic.routing;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.iimmersao.springmimic.core.CodecRegistry;
+import com.iimmersao.springmimic.core.TypeConverter;
+import com.iimmersao.springmimic.web.PageRequest;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Factory methods for the argument resolvers RouteHandlerFactory assembles into a HandlerPlan.
+ */
+final class ArgumentResolvers {
+
+    private static final ArgumentResolver SESSION = RequestContext::session;
+    private static final ArgumentResolver NONE = request -> null;
+
+    private ArgumentResolvers() {
+    }
+
+    static ArgumentResolver session() {
+        return SESSION;
+    }
+
+    static ArgumentResolver none() {
+        return NONE;
+    }
+
+    /**
+     * Resolves a path variable by its position in the route template; a negative index
+     * means the template has no variable with that name.
+     */
+    static ArgumentResolver pathVariable(String name, int index, Class<?> type, TypeConverter<?> converter) {
+        return request -> {
+            String value = request.pathValue(index);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing path variable: " + name);
+            }
+            return convert(converter, value, "path variable", name, type);
+        };
+    }
+
+    static ArgumentResolver requestParam(String name, Class<?> type, TypeConverter<?> converter) {
+        boolean primitive = type.isPrimitive();
+        return request -> {
+            String value = request.firstQueryValue(name);
+            if (value != null) {
+                return convert(converter, value, "request parameter", name, type);
+            }
+            if (primitive) {
+                throw new IllegalArgumentException("Missing required request parameter: " + name);
+            }
+            return null; // treat as optional
+        };
+    }
+
+    /**
+     * Resolves a List parameter from every occurrence of a repeated query parameter; an
+     * absent parameter gives an empty list.
+     */
+    static ArgumentResolver requestParamList(String name, Class<?> elementType, TypeConverter<?> converter) {
+        return request -> {
+            List<String> values = request.queryValues(name);
+            List<Object> converted = new ArrayList<>(values.size());
+            for (String value : values) {
+                converted.add(convert(converter, value, "request parameter", name, elementType));
+            }
+            return converted;
+        };
+    }
+
+    /**
+     * Reads the body as JSON, unless its Content-Type names one of the binary formats.
+     */
+    static ArgumentResolver requestBody(ObjectReader jsonReader, Map<String, ObjectReader> binaryReaders) {
+        return request -> {
+            InputStream body = request.body();
+            if (body == null) {
+                throw new IllegalArgumentException("Missing request body");
+            }
+            String contentType = request.session().getHeaders().get("content-type");
+            ObjectReader reader = CodecRegistry.isBinary(contentType)
+                    ? binaryReaders.get(CodecRegistry.baseType(contentType))
+                    : jsonReader;
+            // Parse from the connection; an all-whitespace body has no first token
+            try (JsonParser parser = reader.createParser(body)) {
+                if (parser.nextToken() == null) {
+                    throw new IllegalArgumentException("Missing request body");
+                }
+                return reader.readValue(parser);
+            }
+        };
+    }
+
+    static ArgumentResolver pageRequest() {
+        return request -> {
+            PageRequest pageRequest = new PageRequest();
+
+            String page = request.firstQueryValue("page");
+            String size = request.firstQueryValue("size");
+            String sort = request.firstQueryValue("sort");
+
+            if (page != null) {
+                try {
+                    pageRequest.setPage(Integer.parseInt(page));
+                } catch (NumberFormatException ignored) {}
+            }
+
+            if (size != null) {
+                try {
+                    pageRequest.setSize(Integer.parseInt(size));
+                } catch (NumberFormatException ignored) {}
+            }
+
+            if (sort != null) {
+                pageRequest.setSortBy(sort);
+            }
+
+            return pageRequest;
+        };
+    }
+
+    // Reports bad input as a client error naming the parameter, whatever the converter threw
+    private static Object convert(TypeConverter<?> converter, String value, String kind, String name, Class<?> type) {
+        try {
+            return converter.convert(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid value for " + kind + " '" + name + "' - expected "
+                    + (type.isEnum() ? "one of " + Arrays.toString(type.getEnumConstants()) : type.getSimpleName()));
+        }
+    }
+}
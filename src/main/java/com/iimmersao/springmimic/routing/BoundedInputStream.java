@@ -0,0 +1,68 @@
+package com.iimmersao.springmimic.routing;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Exposes exactly the declared Content-Length of a request body from the connection's
+ * stream, so a parser cannot read into the next request on a keep-alive connection.
+ * Closing it leaves the connection open.
+ */
+class BoundedInputStream extends InputStream {
+
+    private final InputStream in;
+    private long remaining;
+
+    BoundedInputStream(InputStream in, long length) {
+        this.in = in;
+        this.remaining = length;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (remaining <= 0) {
+            return -1;
+        }
+        int b = in.read();
+        if (b >= 0) {
+            remaining--;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int off, int len) throws IOException {
+        if (remaining <= 0) {
+            return -1;
+        }
+        int count = in.read(buffer, off, (int) Math.min(len, remaining));
+        if (count > 0) {
+            remaining -= count;
+        }
+        return count;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(in.available(), remaining);
+    }
+
+    long remaining() {
+        return remaining;
+    }
+
+    /**
+     * Reads and discards whatever is left of the body.
+     */
+    void discardRemaining() throws IOException {
+        byte[] scratch = new byte[(int) Math.min(8192, Math.max(remaining, 1))];
+        while (remaining > 0 && read(scratch, 0, scratch.length) >= 0) {
+            // discard
+        }
+    }
+
+    @Override
+    public void close() {
+        // The underlying stream belongs to the connection
+    }
+}
@@ -0,0 +1,84 @@
+package com.iimmersao.springmimic.routing;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of growable byte buffers for serializing response bodies. A body is
+ * written into a borrowed buffer and sent straight from it; the buffer comes back when
+ * NanoHTTPD closes the response. Buffers that grew beyond {@code maxRetainedBytes} are
+ * dropped rather than pooled so one huge response does not pin memory forever.
+ */
+class BufferPool {
+
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private final ConcurrentLinkedQueue<Buffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger freeCount = new AtomicInteger();
+    private final int maxPooled;
+    private final int maxRetainedBytes;
+
+    BufferPool(int maxPooled, int maxRetainedBytes) {
+        this.maxPooled = maxPooled;
+        this.maxRetainedBytes = maxRetainedBytes;
+    }
+
+    Buffer acquire() {
+        Buffer buffer = free.poll();
+        if (buffer == null) {
+            return new Buffer();
+        }
+        freeCount.decrementAndGet();
+        buffer.reset();
+        return buffer;
+    }
+
+    void release(Buffer buffer) {
+        if (buffer.capacity() > maxRetainedBytes) {
+            return;
+        }
+        if (freeCount.incrementAndGet() > maxPooled) {
+            freeCount.decrementAndGet();
+            return;
+        }
+        free.offer(buffer);
+    }
+
+    int getPooledCount() {
+        return freeCount.get();
+    }
+
+    /**
+     * A ByteArrayOutputStream whose contents can be read without copying.
+     */
+    class Buffer extends ByteArrayOutputStream {
+
+        Buffer() {
+            super(INITIAL_CAPACITY);
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+
+        /**
+         * Streams the contents without copying them and returns the buffer to the pool on close.
+         */
+        InputStream toInputStream() {
+            return new ByteArrayInputStream(buf, 0, count) {
+                private boolean released;
+
+                @Override
+                public void close() {
+                    if (!released) {
+                        released = true;
+                        release(Buffer.this);
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.iimmersao.springmimic.routing;
+
+import fi.iki.elonen.NanoHTTPD;
+import fi.iki.elonen.NanoHTTPD.Response;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A response read into memory so that it can be sent more than once.
+ */
+record BufferedResponse(Response.IStatus status, String mimeType, byte[] body, Map<String, String> headers) {
+
+    // NanoHTTPD does not list a response's headers, so these are the ones worth keeping
+    private static final List<String> HEADERS = List.of("Vary", "ETag", "Last-Modified", "Cache-Control",
+            "Content-Language", "Location", "Retry-After", "WWW-Authenticate");
+
+    /**
+     * Reads a response with a fixed-length body of at most {@code maxBytes}, leaving it ready
+     * to send; returns null for streamed or larger bodies, which are left untouched.
+     */
+    static BufferedResponse capture(Response response, long maxBytes) throws IOException {
+        InputStream data = response.getData();
+        if (!(data instanceof ByteArrayInputStream) || data.available() > maxBytes) {
+            return null;
+        }
+
+        byte[] body;
+        try (data) {
+            body = data.readAllBytes();
+        }
+        response.setData(new ByteArrayInputStream(body));
+
+        Map<String, String> headers = new HashMap<>();
+        for (String name : HEADERS) {
+            String value = response.getHeader(name);
+            if (value != null) {
+                headers.put(name, value);
+            }
+        }
+        return new BufferedResponse(response.getStatus(), response.getMimeType(), body, headers);
+    }
+
+    Response toResponse() {
+        Response response = NanoHTTPD.newFixedLengthResponse(status, mimeType, new ByteArrayInputStream(body), body.length);
+        headers.forEach(response::addHeader);
+        return response;
+    }
+}
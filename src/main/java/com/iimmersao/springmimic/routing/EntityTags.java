@@ -0,0 +1,77 @@
+package com.iimmersao.springmimic.routing;
+
+import fi.iki.elonen.NanoHTTPD;
+import fi.iki.elonen.NanoHTTPD.IHTTPSession;
+import fi.iki.elonen.NanoHTTPD.Response;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * ETags for dynamic responses and the If-None-Match check that turns a request into a 304.
+ */
+final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    /**
+     * A strong ETag from a body's length and CRC32C; the length makes colliding checksums of
+     * different bodies much less likely.
+     */
+    static String fromChecksum(long length, long crc) {
+        return "\"" + Long.toHexString(length) + "-" + Long.toHexString(crc) + "\"";
+    }
+
+    /**
+     * Whether If-None-Match names the ETag, in either its identity form or the "-gz" form
+     * WebServer gives compressed bodies.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String gzipEtag = etag.substring(0, etag.length() - 1) + "-gz\"";
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag) || tag.equals(gzipEtag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces a 200 response whose ETag the client already has with a bodiless 304.
+     */
+    static Response notModifiedIfMatching(IHTTPSession session, Response response) throws IOException {
+        String etag = response.getHeader("ETag");
+        if (response.getStatus() != Response.Status.OK
+                || !matches(session.getHeaders().get("if-none-match"), etag)) {
+            return response;
+        }
+        // Hands a pooled buffer back
+        InputStream data = response.getData();
+        if (data != null) {
+            data.close();
+        }
+        return notModified(etag, response.getHeader("Vary"));
+    }
+
+    /**
+     * A bodiless 304 for a representation the client already has.
+     *
+     * @param vary the Vary header the full response would have had, or null
+     */
+    static Response notModified(String etag, String vary) {
+        Response notModified = NanoHTTPD.newFixedLengthResponse(Response.Status.NOT_MODIFIED, null, "");
+        notModified.addHeader("ETag", etag);
+        if (vary != null) {
+            notModified.addHeader("Vary", vary);
+        }
+        return notModified;
+    }
+}
@@ -0,0 +1,37 @@
+package com.iimmersao.springmimic.routing;
+
+import com.iimmersao.springmimic.database.EntityVersions;
+import com.iimmersao.springmimic.security.UserDetails;
+
+/**
+ * The ETag of an {@code @ETag(entities = ...)} route, worked out from the versions of the
+ * entity types its responses are built from rather than from the body.
+ *
+ * @param versions the DatabaseClient's write counters
+ * @param entities the entity types named by the annotation
+ */
+record EntityVersionTag(EntityVersions versions, Class<?>[] entities) {
+
+    /**
+     * Each version only grows, so their sum changes whenever any of them does.
+     *
+     * @param user   the authenticated user, who gets their own tags; null if not authenticated
+     * @param format the negotiated body format, or null for the route's own media type
+     */
+    String current(UserDetails user, String format) {
+        long sum = 0;
+        for (Class<?> entity : entities) {
+            sum += versions.get(entity);
+        }
+        StringBuilder tag = new StringBuilder("\"v")
+                .append(Long.toHexString(versions.getEpoch()))
+                .append('.').append(Long.toHexString(sum));
+        if (format != null) {
+            tag.append('.').append(format, format.indexOf('/') + 1, format.length());
+        }
+        if (user != null) {
+            tag.append('.').append(Integer.toHexString(user.getUsername().hashCode()));
+        }
+        return tag.append('"').toString();
+    }
+}
@@ -0,0 +1,95 @@
+package com.iimmersao.springmimic.routing;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.iimmersao.springmimic.web.EventStream;
+import com.iimmersao.springmimic.web.ServerSentEvent;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Formats the events of an {@link EventStream} as {@code text/event-stream} while NanoHTTPD
+ * sends them as a chunked response, one event per read. A read waits for the next event; if
+ * none comes within the heartbeat interval it returns a comment instead, which keeps proxies
+ * from closing an idle connection and shows, by failing, that the client has gone.
+ */
+class EventStreamInputStream extends InputStream {
+
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final EventStream events;
+    private final ObjectWriter writer;
+    private final long heartbeatNanos;
+    private byte[] pending = new byte[0];
+    private int readPosition;
+
+    EventStreamInputStream(EventStream events, ObjectWriter writer, long heartbeatNanos) {
+        this.events = events;
+        this.writer = writer;
+        this.heartbeatNanos = heartbeatNanos;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int off, int len) throws IOException {
+        while (readPosition == pending.length) {
+            ServerSentEvent event;
+            try {
+                event = events.next(heartbeatNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for an event");
+            }
+            if (event != null) {
+                pending = format(event);
+            } else if (events.isFinished()) {
+                return -1;
+            } else {
+                pending = HEARTBEAT;
+            }
+            readPosition = 0;
+        }
+        int count = Math.min(len, pending.length - readPosition);
+        System.arraycopy(pending, readPosition, buffer, off, count);
+        readPosition += count;
+        return count;
+    }
+
+    private byte[] format(ServerSentEvent event) throws IOException {
+        StringBuilder text = new StringBuilder();
+        if (event.id() != null) {
+            text.append("id: ").append(event.id()).append('\n');
+        }
+        if (event.event() != null) {
+            text.append("event: ").append(event.event()).append('\n');
+        }
+        Object data = event.data();
+        String payload = data == null ? "" : data instanceof String string ? string : writer.writeValueAsString(data);
+        // Each line of the payload is a data field of its own; the client joins them with \n
+        int start = 0;
+        for (int i = 0; i <= payload.length(); i++) {
+            char c = i < payload.length() ? payload.charAt(i) : '\n';
+            if (c == '\n' || c == '\r') {
+                text.append("data: ").append(payload, start, i).append('\n');
+                if (c == '\r' && i + 1 < payload.length() && payload.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                start = i + 1;
+            }
+        }
+        return text.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // NanoHTTPD closes the body when it is sent or the client has gone
+    @Override
+    public void close() {
+        events.close();
+    }
+}
@@ -0,0 +1,96 @@
+package com.iimmersao.springmimic.routing;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+
+/**
+ * Calls a controller method with already-resolved arguments. Exceptions thrown by the
+ * controller propagate unwrapped, whichever implementation is used.
+ */
+@FunctionalInterface
+interface HandlerInvoker {
+
+    Object invoke(Object[] args) throws Exception;
+
+    /**
+     * Returns a method-handle invoker bound to the controller instance when the method is
+     * publicly accessible, otherwise a reflective invoker.
+     */
+    static HandlerInvoker create(Object controllerInstance, Method method) {
+        if (Modifier.isPublic(method.getModifiers()) && Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+            try {
+                return MethodHandleInvoker.create(controllerInstance, method);
+            } catch (IllegalAccessException ignored) {
+                // e.g. a public nested class inside a non-public class
+            }
+        }
+        return ReflectiveInvoker.create(controllerInstance, method);
+    }
+
+    /**
+     * Invokes through a MethodHandle adapted to {@code (Object[])Object}. The handle is bound
+     * to the controller instance at registration, so a call performs no access checks and
+     * does not wrap exceptions. Record components are trusted finals, which lets the JIT
+     * treat the handle as a constant once the invoker itself is.
+     */
+    record MethodHandleInvoker(MethodHandle handle) implements HandlerInvoker {
+
+        private static final MethodType GENERIC = MethodType.methodType(Object.class, Object[].class);
+
+        static MethodHandleInvoker create(Object controllerInstance, Method method) throws IllegalAccessException {
+            MethodHandle handle = MethodHandles.publicLookup().unreflect(method);
+            if (!Modifier.isStatic(method.getModifiers())) {
+                handle = handle.bindTo(controllerInstance);
+            }
+            handle = handle.asSpreader(Object[].class, method.getParameterCount()).asType(GENERIC);
+            return new MethodHandleInvoker(handle);
+        }
+
+        @Override
+        public Object invoke(Object[] args) throws Exception {
+            try {
+                return (Object) handle.invokeExact(args);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new UndeclaredThrowableException(t);
+            }
+        }
+    }
+
+    /**
+     * Fallback for methods the public lookup cannot reach.
+     */
+    record ReflectiveInvoker(Object controllerInstance, Method method) implements HandlerInvoker {
+
+        static ReflectiveInvoker create(Object controllerInstance, Method method) {
+            try {
+                method.setAccessible(true);
+            } catch (RuntimeException ignored) {
+                // Leave access checks in place; invoke() reports the IllegalAccessException
+            }
+            return new ReflectiveInvoker(controllerInstance, method);
+        }
+
+        @Override
+        public Object invoke(Object[] args) throws Exception {
+            try {
+                return method.invoke(controllerInstance, args);
+            } catch (InvocationTargetException e) {
+                Throwable target = e.getTargetException();
+                if (target instanceof Exception exception) {
+                    throw exception;
+                }
+                if (target instanceof Error error) {
+                    throw error;
+                }
+                throw new UndeclaredThrowableException(target);
+            }
+        }
+    }
+}
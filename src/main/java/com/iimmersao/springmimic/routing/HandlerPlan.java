@@ -0,0 +1,48 @@
+package com.iimmersao.springmimic.routing;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Everything RouteHandler needs to serve a request that can be worked out from
+ * annotations up front, so that the request path does no reflection lookups.
+ *
+ * @param resolvers         one resolver per controller method parameter, in order
+ * @param requiresAuth      whether the method is annotated with @Authenticated
+ * @param requiredRoles     roles from @RolesAllowed, or null if any authenticated user may call it
+ * @param producesMediaType value of @Produces, or null if absent
+ * @param serializeResult   whether the return value is serialized rather than sent as text
+ * @param streamResult      whether the return value is a Stream or Iterator, serialized element by element
+ * @param eventStream       whether the return value is an EventStream, kept open as text/event-stream
+ * @param resultWriter      writer resolved for the declared return type (for its elements, runtime-typed, if
+ *                          streamed), or null if not serialized
+ * @param binaryWriters     writers for the return type by binary media type, used when the Accept header
+ *                          asks for CBOR or Smile; empty if the route's media type is fixed
+ * @param maxBodyBytes      larger request bodies are rejected with 413 before being read; 0 for no limit
+ * @param handlesRawBody    whether the method takes the IHTTPSession and so may read the body itself
+ * @param cachePolicy       from @CacheResponse, or null if responses are not cached
+ * @param singleFlightTimeoutNanos how long a request coalesced by @SingleFlight waits; 0 if not coalesced
+ * @param etag              whether serialized responses get an ETag and conditional GETs a 304
+ * @param versionTag        from @ETag(entities), or null if the ETag is not worked out from entity versions
+ * @param asyncTimeoutNanos how long to wait for a returned future to complete; 0 if the method returns
+ *                          its result directly
+ */
+record HandlerPlan(ArgumentResolver[] resolvers,
+                   boolean requiresAuth,
+                   Set<String> requiredRoles,
+                   String producesMediaType,
+                   boolean serializeResult,
+                   boolean streamResult,
+                   boolean eventStream,
+                   ObjectWriter resultWriter,
+                   Map<String, ObjectWriter> binaryWriters,
+                   long maxBodyBytes,
+                   boolean handlesRawBody,
+                   ResponseCachePolicy cachePolicy,
+                   long singleFlightTimeoutNanos,
+                   boolean etag,
+                   EntityVersionTag versionTag,
+                   long asyncTimeoutNanos) {
+}
@@ -0,0 +1,138 @@
+package com.iimmersao.springmimic.routing;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+
+/**
+ * Serializes a sequence of elements as a JSON array (or a CBOR/Smile one, depending on the
+ * writer's format), or as newline-delimited JSON, while it is being read. Each read
+ * asks one Jackson generator to write just enough elements to fill a chunk, so only one
+ * chunk of the body is ever in memory, and no thread or pipe is needed to drive it.
+ * <p>
+ * A failure while producing or writing an element is thrown unchecked: NanoHTTPD then
+ * drops the connection, so the client sees a truncated body rather than a complete one
+ * with elements missing.
+ */
+class JsonArrayInputStream extends InputStream {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final Iterator<?> elements;
+    private final ObjectWriter writer;
+    private final ChunkBuffer chunk = new ChunkBuffer();
+    private final JsonGenerator generator;
+    private final boolean lines;
+    private AutoCloseable resource;
+    private int readPosition;
+    private boolean finished;
+
+    JsonArrayInputStream(Iterator<?> elements, ObjectWriter writer) throws IOException {
+        this(elements, writer, false, null);
+    }
+
+    /**
+     * @param lines    whether to write each element on its own line instead of in an array
+     * @param resource closed once the elements are written or the stream is closed, e.g. the
+     *                 Stream they come from; may be null
+     */
+    JsonArrayInputStream(Iterator<?> elements, ObjectWriter writer, boolean lines, AutoCloseable resource)
+            throws IOException {
+        this.elements = elements;
+        // Lines end with a newline of their own rather than being separated by a space
+        this.writer = lines ? writer.withRootValueSeparator("") : writer;
+        this.lines = lines;
+        this.resource = resource;
+        this.generator = this.writer.createGenerator(chunk);
+        if (!lines) {
+            generator.writeStartArray();
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int off, int len) throws IOException {
+        while (readPosition == chunk.size()) {
+            if (finished) {
+                return -1;
+            }
+            fill();
+        }
+        int count = Math.min(len, chunk.size() - readPosition);
+        System.arraycopy(chunk.bytes(), readPosition, buffer, off, count);
+        readPosition += count;
+        return count;
+    }
+
+    // Only called once the previous chunk has been handed out
+    private void fill() throws IOException {
+        chunk.reset();
+        readPosition = 0;
+        try {
+            while (chunk.size() + generator.getOutputBuffered() < CHUNK_SIZE && elements.hasNext()) {
+                writer.writeValue(generator, elements.next());
+                if (lines) {
+                    generator.writeRaw('\n');
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (elements.hasNext()) {
+            generator.flush();
+        } else {
+            if (!lines) {
+                generator.writeEndArray();
+            }
+            generator.close();
+            finished = true;
+            // Releases a database cursor, say, before the last chunk has gone out
+            closeResource();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        try {
+            generator.close();
+        } finally {
+            closeResource();
+        }
+    }
+
+    // NanoHTTPD closes the body more than once, and not every resource tolerates that
+    private void closeResource() throws IOException {
+        AutoCloseable closing = resource;
+        resource = null;
+        if (closing != null) {
+            try {
+                closing.close();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    private static class ChunkBuffer extends ByteArrayOutputStream {
+        ChunkBuffer() {
+            super(CHUNK_SIZE + 1024);
+        }
+
+        byte[] bytes() {
+            return buf;
+        }
+    }
+}
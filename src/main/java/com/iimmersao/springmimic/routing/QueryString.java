@@ -0,0 +1,149 @@
+package com.iimmersao.springmimic.routing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A raw query string read in place. The first lookup records where each pair starts and
+ * ends in one pass; nothing else is copied, and only the values that are looked up are
+ * percent-decoded (as UTF-8, with {@code +} as a space).
+ */
+final class QueryString {
+
+    private final String raw;
+    // For each pair: start of the key, end of the key ('=' or the end of the pair), end of the pair
+    private int[] bounds;
+    private int pairCount = -1;
+
+    QueryString(String raw) {
+        this.raw = raw != null ? raw : "";
+    }
+
+    /**
+     * The decoded value of the first pair with the given (decoded) name, "" for a name without
+     * a value, or null if the name does not occur.
+     *
+     * @throws IllegalArgumentException if the key or value is not well-formed percent-encoding
+     */
+    String first(String name) {
+        if (pairCount < 0) {
+            index();
+        }
+        for (int i = 0; i < pairCount * 3; i += 3) {
+            int keyEnd = bounds[i + 1];
+            if (keyEquals(bounds[i], keyEnd, name)) {
+                int end = bounds[i + 2];
+                return keyEnd < end ? decode(raw, keyEnd + 1, end) : "";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The decoded values of every pair with the given name, in order; empty if there is none.
+     */
+    List<String> all(String name) {
+        if (pairCount < 0) {
+            index();
+        }
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < pairCount * 3; i += 3) {
+            int keyEnd = bounds[i + 1];
+            if (keyEquals(bounds[i], keyEnd, name)) {
+                int end = bounds[i + 2];
+                values.add(keyEnd < end ? decode(raw, keyEnd + 1, end) : "");
+            }
+        }
+        return values;
+    }
+
+    private void index() {
+        int length = raw.length();
+        int count = 0;
+        bounds = new int[8 * 3];
+        int start = 0;
+        int keyEnd = -1;
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? raw.charAt(i) : '&';
+            if (c == '=' && keyEnd < 0) {
+                keyEnd = i;
+            } else if (c == '&') {
+                // Skips empty pairs, as in "a=1&&b=2"
+                if (i > start) {
+                    if (count * 3 == bounds.length) {
+                        bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                    }
+                    bounds[count * 3] = start;
+                    bounds[count * 3 + 1] = keyEnd >= 0 ? keyEnd : i;
+                    bounds[count * 3 + 2] = i;
+                    count++;
+                }
+                start = i + 1;
+                keyEnd = -1;
+            }
+        }
+        pairCount = count;
+    }
+
+    private boolean keyEquals(int start, int end, String name) {
+        for (int i = start; i < end; i++) {
+            char c = raw.charAt(i);
+            if (c == '%' || c == '+') {
+                return decode(raw, start, end).equals(name);
+            }
+        }
+        return end - start == name.length() && raw.regionMatches(start, name, 0, name.length());
+    }
+
+    /**
+     * Decodes {@code application/x-www-form-urlencoded} text; returns a plain substring when
+     * there is nothing to decode.
+     */
+    static String decode(String raw, int start, int end) {
+        int i = start;
+        while (i < end && raw.charAt(i) != '%' && raw.charAt(i) != '+') {
+            i++;
+        }
+        if (i == end) {
+            return raw.substring(start, end);
+        }
+
+        StringBuilder decoded = new StringBuilder(end - start).append(raw, start, i);
+        byte[] bytes = null;
+        while (i < end) {
+            char c = raw.charAt(i);
+            if (c == '+') {
+                decoded.append(' ');
+                i++;
+            } else if (c == '%') {
+                // Consecutive escapes are one UTF-8 sequence
+                if (bytes == null) {
+                    bytes = new byte[(end - i) / 3];
+                }
+                int count = 0;
+                while (i < end && raw.charAt(i) == '%') {
+                    if (i + 2 >= end) {
+                        throw new IllegalArgumentException("Malformed escape in query string: " + raw);
+                    }
+                    bytes[count++] = (byte) (hexDigit(raw, i + 1) << 4 | hexDigit(raw, i + 2));
+                    i += 3;
+                }
+                decoded.append(new String(bytes, 0, count, StandardCharsets.UTF_8));
+            } else {
+                decoded.append(c);
+                i++;
+            }
+        }
+        return decoded.toString();
+    }
+
+    private static int hexDigit(String raw, int index) {
+        int digit = Character.digit(raw.charAt(index), 16);
+        if (digit < 0) {
+            throw new IllegalArgumentException("Malformed escape in query string: " + raw);
+        }
+        return digit;
+    }
+}
@@ -0,0 +1,120 @@
+package com.iimmersao.springmimic.routing;
+
+import com.iimmersao.springmimic.web.ResponseFactory;
+import fi.iki.elonen.NanoHTTPD.Response;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets identical concurrent requests to @SingleFlight routes share one computation. The first
+ * request for a key (the leader) is handled as usual; requests arriving with the same key
+ * while it runs (followers) wait for its response and are sent a copy of it.
+ * <p>
+ * A follower that waits longer than the route's timeout gets 503. If the leader fails,
+ * its followers fail the same way; if its body is streamed or larger than
+ * {@code maxSharedBytes}, so that it cannot be copied, each follower is handled on its own.
+ */
+public class RequestCoalescer {
+
+    /**
+     * Handles a request; the leader's handling of its key.
+     */
+    @FunctionalInterface
+    interface Call {
+        Response run() throws Exception;
+    }
+
+    private final long maxSharedBytes;
+    // Completed with null when the leader's response cannot be shared
+    private final ConcurrentMap<String, CompletableFuture<BufferedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong leaders = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    public RequestCoalescer(long maxSharedBytes) {
+        this.maxSharedBytes = maxSharedBytes;
+    }
+
+    /**
+     * The key of a request to a route: identical requests have the same route, user, format, path
+     * and query parameters. Parameters may come in any order, but the values of a repeated one
+     * keep theirs, since a List parameter gets them in request order.
+     */
+    static String key(String route, String username, String format, String uri, String query) {
+        StringBuilder key = new StringBuilder(route).append('|');
+        // Length-prefixed right after the fixed route, so no URI can make two users' keys equal
+        if (username != null) {
+            key.append(username.length()).append(':').append(username);
+        }
+        key.append('|').append(format).append('|').append(uri);
+        if (query != null && !query.isEmpty()) {
+            String[] pairs = query.split("&");
+            // Sorting is stable, so only pairs with different names are reordered
+            Arrays.sort(pairs, Comparator.comparing(RequestCoalescer::parameterName));
+            key.append('?').append(String.join("&", pairs));
+        }
+        return key.toString();
+    }
+
+    private static String parameterName(String pair) {
+        int equals = pair.indexOf('=');
+        return equals >= 0 ? pair.substring(0, equals) : pair;
+    }
+
+    Response execute(String key, long timeoutNanos, Call call) throws Exception {
+        CompletableFuture<BufferedResponse> flight = new CompletableFuture<>();
+        CompletableFuture<BufferedResponse> leader = inFlight.putIfAbsent(key, flight);
+        if (leader == null) {
+            return lead(key, flight, call);
+        }
+
+        coalesced.incrementAndGet();
+        BufferedResponse shared;
+        try {
+            shared = leader.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeouts.incrementAndGet();
+            return ResponseFactory.serviceUnavailable("Timed out waiting for an identical request", 1);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+        return shared != null ? shared.toResponse() : call.run();
+    }
+
+    private Response lead(String key, CompletableFuture<BufferedResponse> flight, Call call) throws Exception {
+        leaders.incrementAndGet();
+        try {
+            Response response = call.run();
+            flight.complete(BufferedResponse.capture(response, maxSharedBytes));
+            return response;
+        } catch (Exception | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Requests arriving from now on start a new flight
+            inFlight.remove(key, flight);
+        }
+    }
+
+    public long getLeaders() {
+        return leaders.get();
+    }
+
+    /**
+     * Requests that waited for a leader instead of being handled themselves.
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+}
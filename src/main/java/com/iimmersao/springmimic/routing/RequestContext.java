@@ -0,0 +1,130 @@
+package com.iimmersao.springmimic.routing;
+
+import com.iimmersao.springmimic.exceptions.PayloadTooLargeException;
+import fi.iki.elonen.NanoHTTPD.IHTTPSession;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Per-request state shared by a route's argument resolvers. The query string is only
+ * scanned if a resolver asks for a parameter, and the request body is only read if a
+ * resolver parses it, straight from the connection.
+ */
+final class RequestContext {
+
+    // Unread bodies up to this size are skipped to keep the connection; larger ones close it
+    static final long MAX_DISCARD_BYTES = 64 * 1024;
+
+    private static final long INVALID_LENGTH = -2;
+
+    private final IHTTPSession session;
+    private final String[] pathValues;
+    private QueryString query;
+    private final long contentLength;
+    private BoundedInputStream body;
+
+    RequestContext(IHTTPSession session, String[] pathValues) {
+        this.session = session;
+        this.pathValues = pathValues;
+        this.contentLength = declaredBodyLength(session);
+    }
+
+    // Only POST, PUT and PATCH bodies are read; -1 if there is none, INVALID_LENGTH if unparseable
+    private static long declaredBodyLength(IHTTPSession session) {
+        String httpMethod = session.getMethod().name();
+        if (!httpMethod.equals("POST") && !httpMethod.equals("PUT") && !httpMethod.equals("PATCH")) {
+            return -1;
+        }
+        String contentLengthHeader = session.getHeaders().get("content-length");
+        if (contentLengthHeader == null) {
+            return -1;
+        }
+        try {
+            long length = Long.parseLong(contentLengthHeader.trim());
+            return length >= 0 ? length : INVALID_LENGTH;
+        } catch (NumberFormatException e) {
+            return INVALID_LENGTH;
+        }
+    }
+
+    IHTTPSession session() {
+        return session;
+    }
+
+    String pathValue(int index) {
+        return index >= 0 && index < pathValues.length ? pathValues[index] : null;
+    }
+
+    int pathValueCount() {
+        return pathValues.length;
+    }
+
+    /**
+     * The decoded value of the first query parameter with that name, or null if absent.
+     */
+    String firstQueryValue(String name) {
+        return query().first(name);
+    }
+
+    /**
+     * The decoded values of every query parameter with that name; empty if there is none.
+     */
+    List<String> queryValues(String name) {
+        return query().all(name);
+    }
+
+    /**
+     * Rejects a body whose declared length exceeds the limit, before any of it is read.
+     */
+    void checkBodySize(long maxBodyBytes) {
+        if (contentLength == INVALID_LENGTH) {
+            throw new IllegalArgumentException("Invalid Content-Length header");
+        }
+        if (maxBodyBytes > 0 && contentLength > maxBodyBytes) {
+            throw new PayloadTooLargeException("Request body of " + contentLength
+                    + " bytes exceeds the limit of " + maxBodyBytes + " bytes");
+        }
+    }
+
+    /**
+     * The request body, limited to its Content-Length, or null if the request has none.
+     */
+    InputStream body() {
+        if (contentLength <= 0) {
+            return null;
+        }
+        if (body == null) {
+            body = new BoundedInputStream(session.getInputStream(), contentLength);
+        }
+        return body;
+    }
+
+    /**
+     * Skips whatever the handler left unread so the next request on the connection starts
+     * in the right place. Returns false if the remainder was too large to be worth reading,
+     * in which case the connection must be closed instead.
+     */
+    boolean discardUnreadBody() throws IOException {
+        if (contentLength == INVALID_LENGTH) {
+            return false;
+        }
+        long unread = body != null ? body.remaining() : Math.max(contentLength, 0);
+        if (unread == 0) {
+            return true;
+        }
+        if (unread > MAX_DISCARD_BYTES) {
+            return false;
+        }
+        ((BoundedInputStream) body()).discardRemaining();
+        return true;
+    }
+
+    private QueryString query() {
+        if (query == null) {
+            query = new QueryString(session.getQueryParameterString());
+        }
+        return query;
+    }
+}
@@ -0,0 +1,186 @@
+package com.iimmersao.springmimic.routing;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.iimmersao.springmimic.core.CodecRegistry;
+import com.iimmersao.springmimic.core.ConfigLoader;
+import com.iimmersao.springmimic.web.EventStream;
+import fi.iki.elonen.NanoHTTPD;
+import fi.iki.elonen.NanoHTTPD.Response;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Turns a controller's return value into a response body without building it as a String.
+ * <p>
+ * JSON (or CBOR/Smile) collections and arrays with at least {@code streamMinElements}
+ * elements are serialized element by element while NanoHTTPD sends them as a chunked
+ * response; so are Streams and Iterators, of any length, which are closed once written.
+ * An {@link EventStream} is kept open as a {@code text/event-stream}.
+ * Everything else is serialized into a pooled buffer, using the writer the route resolved
+ * for its return type, and sent with a fixed Content-Length straight from that buffer.
+ */
+class ResponseBodyWriter {
+
+    private final CodecRegistry codecs;
+    private final int streamMinElements;
+    private final BufferPool buffers;
+    private final long heartbeatNanos;
+
+    ResponseBodyWriter(CodecRegistry codecs, int streamMinElements, BufferPool buffers) {
+        this(codecs, streamMinElements, buffers, TimeUnit.SECONDS.toNanos(15));
+    }
+
+    /**
+     * @param heartbeatNanos how long an event stream may stay idle before a comment is sent
+     */
+    ResponseBodyWriter(CodecRegistry codecs, int streamMinElements, BufferPool buffers, long heartbeatNanos) {
+        this.codecs = codecs;
+        this.streamMinElements = streamMinElements;
+        this.buffers = buffers;
+        this.heartbeatNanos = heartbeatNanos;
+    }
+
+    static ResponseBodyWriter fromConfig(CodecRegistry codecs, ConfigLoader config) {
+        int streamMinElements = config != null ? config.getInt("server.response.streamMinElements", 256) : 256;
+        int poolSize = config != null ? config.getInt("server.response.bufferPoolSize", 64) : 64;
+        long heartbeatMillis = config != null ? config.getLong("server.sse.heartbeatMillis", 15000) : 15000;
+        return new ResponseBodyWriter(codecs, streamMinElements, new BufferPool(poolSize, 256 * 1024),
+                TimeUnit.MILLISECONDS.toNanos(heartbeatMillis));
+    }
+
+    /**
+     * @param writer the route's writer for its declared return type, or null to pick one by media type
+     */
+    Response write(Object result, String mediaType, ObjectWriter writer) throws IOException {
+        return write(result, mediaType, writer, false);
+    }
+
+    /**
+     * @param etag whether to send an ETag, a checksum taken while the body is written; bodies
+     *             streamed as they are serialized get none, as headers go out before them
+     */
+    Response write(Object result, String mediaType, ObjectWriter writer, boolean etag) throws IOException {
+        if (result == null) {
+            return NanoHTTPD.newFixedLengthResponse(Response.Status.OK, mediaType, "");
+        }
+        if (result instanceof String text && mediaType.equalsIgnoreCase("text/plain")) {
+            Response response = NanoHTTPD.newFixedLengthResponse(Response.Status.OK, mediaType, text);
+            if (etag) {
+                byte[] bytes = response.getData().readAllBytes();
+                CRC32C crc = new CRC32C();
+                crc.update(bytes);
+                response.setData(new ByteArrayInputStream(bytes));
+                response.addHeader("ETag", EntityTags.fromChecksum(bytes.length, crc.getValue()));
+            }
+            return response;
+        }
+
+        boolean xml = isXml(mediaType);
+        if (!xml) {
+            Iterator<?> elements = largeSequence(result);
+            if (elements != null) {
+                // Elements are written one at a time, so each needs the runtime-typed writer
+                return NanoHTTPD.newChunkedResponse(Response.Status.OK, mediaType,
+                        new JsonArrayInputStream(elements, runtimeTypedWriter(mediaType)));
+            }
+        }
+        if (writer == null) {
+            writer = runtimeTypedWriter(mediaType);
+        }
+
+        BufferPool.Buffer buffer = buffers.acquire();
+        CRC32C crc = etag ? new CRC32C() : null;
+        try {
+            writer.writeValue(crc != null ? new CheckedOutputStream(buffer, crc) : buffer, result);
+        } catch (IOException | RuntimeException e) {
+            buffers.release(buffer);
+            throw e;
+        }
+        Response response = NanoHTTPD.newFixedLengthResponse(Response.Status.OK, mediaType, buffer.toInputStream(),
+                buffer.size());
+        if (crc != null) {
+            response.addHeader("ETag", EntityTags.fromChecksum(buffer.size(), crc.getValue()));
+        }
+        return response;
+    }
+
+    /**
+     * Writes a returned Stream or Iterator element by element as a chunked response, then
+     * closes it (an Iterator only if it is AutoCloseable), also when the client goes away.
+     *
+     * @param writer a runtime-typed writer for the media type's format
+     * @param lines  whether to write newline-delimited JSON rather than an array
+     */
+    Response writeSequence(Object result, String mediaType, ObjectWriter writer, boolean lines) throws IOException {
+        Iterator<?> elements;
+        AutoCloseable resource;
+        if (result instanceof Stream<?> stream) {
+            elements = stream.iterator();
+            resource = stream;
+        } else {
+            elements = result != null ? (Iterator<?>) result : Collections.emptyIterator();
+            resource = elements instanceof AutoCloseable closeable ? closeable : null;
+        }
+        try {
+            return NanoHTTPD.newChunkedResponse(Response.Status.OK, mediaType,
+                    new JsonArrayInputStream(elements, writer, lines, resource));
+        } catch (IOException | RuntimeException e) {
+            if (resource != null) {
+                try {
+                    resource.close();
+                } catch (Exception suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Keeps the response open, writing each event sent to the stream until it is closed. A
+     * null stream gets 204, which tells a browser's EventSource not to reconnect.
+     */
+    Response writeEvents(EventStream events) {
+        if (events == null) {
+            return NanoHTTPD.newFixedLengthResponse(Response.Status.NO_CONTENT, null, "");
+        }
+        Response response = NanoHTTPD.newChunkedResponse(Response.Status.OK, "text/event-stream",
+                new EventStreamInputStream(events, codecs.jsonWriter(), heartbeatNanos));
+        response.addHeader("Cache-Control", "no-cache");
+        // Asks nginx not to buffer the events
+        response.addHeader("X-Accel-Buffering", "no");
+        return response;
+    }
+
+    // Media types the registry has no mapper for, such as vendor JSON types, are written as JSON
+    private ObjectWriter runtimeTypedWriter(String mediaType) {
+        return codecs.supports(mediaType) ? codecs.writer(mediaType, Object.class) : codecs.jsonWriter();
+    }
+
+    static boolean isXml(String mediaType) {
+        return mediaType.equalsIgnoreCase("application/xml") || mediaType.equalsIgnoreCase("text/xml");
+    }
+
+    private Iterator<?> largeSequence(Object result) {
+        if (result instanceof Collection<?> collection && collection.size() >= streamMinElements) {
+            return collection.iterator();
+        }
+        if (result instanceof Object[] array && array.length >= streamMinElements) {
+            return Arrays.asList(array).iterator();
+        }
+        return null;
+    }
+
+    BufferPool getBufferPool() {
+        return buffers;
+    }
+}
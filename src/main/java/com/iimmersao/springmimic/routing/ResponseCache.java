@@ -0,0 +1,168 @@
+package com.iimmersao.springmimic.routing;
+
+import com.iimmersao.springmimic.core.ConfigLoader;
+import fi.iki.elonen.NanoHTTPD.Response;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Serialized responses of @CacheResponse routes, kept as bytes with their status, content
+ * type and headers so that a hit skips argument resolution, the controller and Jackson.
+ * <p>
+ * Entries expire after their route's TTL and the least recently used ones are evicted once
+ * the cached bodies exceed {@code maxBytes}. Only 200 responses with a fixed-length body of at
+ * most {@code maxEntryBytes} are cached; large collections streamed as they are serialized
+ * are not.
+ * <p>
+ * A response is only stored if its route has not been invalidated since the handler started
+ * computing it: the caller reads {@link #generation()} first and passes it to put, so a read
+ * racing with a write and its invalidation cannot put the old data back for a whole TTL.
+ */
+public class ResponseCache {
+
+    private record Entry(String route, BufferedResponse response, long expiresAt) {
+
+        int size() {
+            return response.body().length;
+        }
+    }
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedBytes;
+    // Counts invalidations; each route remembers the count at its last one
+    private long generation;
+    private final Map<String, Long> routeInvalidatedAt = new HashMap<>();
+    private long allInvalidatedAt;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ResponseCache(long maxBytes, long maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    static ResponseCache fromConfig(ConfigLoader config) {
+        long maxBytes = config != null ? config.getLong("server.responseCache.maxBytes", 16L * 1024 * 1024) : 16L * 1024 * 1024;
+        long maxEntryBytes = config != null ? config.getLong("server.responseCache.maxEntryBytes", 1024 * 1024) : 1024 * 1024;
+        return new ResponseCache(maxBytes, maxEntryBytes);
+    }
+
+    /**
+     * Returns a fresh response for a cached entry, or null on a miss.
+     */
+    Response get(String key) {
+        long now = System.nanoTime();
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && now - entry.expiresAt() >= 0) {
+                remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+        }
+        return entry.response().toResponse();
+    }
+
+    /**
+     * The current invalidation generation, to be read before computing a response to put.
+     */
+    synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Caches the response if it can be, and returns the response to send in its place.
+     *
+     * @param readGeneration {@link #generation()} as read before the response was computed; the
+     *                       response is not cached if its route was invalidated since
+     */
+    Response put(String key, String route, Response response, long ttlNanos, long readGeneration)
+            throws IOException {
+        if (response.getStatus() != Response.Status.OK) {
+            return response;
+        }
+        BufferedResponse buffered = BufferedResponse.capture(response, maxEntryBytes);
+        if (buffered == null) {
+            return response;
+        }
+        Entry entry = new Entry(route, buffered, System.nanoTime() + ttlNanos);
+
+        synchronized (this) {
+            if (allInvalidatedAt > readGeneration || routeInvalidatedAt.getOrDefault(route, 0L) > readGeneration) {
+                return response;
+            }
+            remove(key);
+            entries.put(key, entry);
+            cachedBytes += entry.size();
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (cachedBytes > maxBytes && eldest.hasNext()) {
+                cachedBytes -= eldest.next().getValue().size();
+                eldest.remove();
+                evictions++;
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Drops every cached response of a route, given by its template, e.g. "/films/{id}".
+     */
+    public synchronized void invalidateRoute(String route) {
+        routeInvalidatedAt.put(route, ++generation);
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.route().equals(route)) {
+                cachedBytes -= entry.size();
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        allInvalidatedAt = ++generation;
+        // Covered by allInvalidatedAt from now on
+        routeInvalidatedAt.clear();
+        entries.clear();
+        cachedBytes = 0;
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            cachedBytes -= removed.size();
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+}
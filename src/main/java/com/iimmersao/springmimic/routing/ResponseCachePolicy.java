@@ -0,0 +1,46 @@
+package com.iimmersao.springmimic.routing;
+
+import com.iimmersao.springmimic.security.UserDetails;
+
+import java.util.List;
+
+/**
+ * How a @CacheResponse route's responses are cached.
+ *
+ * @param ttlNanos    how long an entry is served
+ * @param queryParams the query parameters that vary the response
+ * @param perUser     whether each authenticated user gets their own entries
+ */
+record ResponseCachePolicy(long ttlNanos, String[] queryParams, boolean perUser) {
+
+    /**
+     * Builds the cache key; each part is length-prefixed so values cannot run into each other.
+     *
+     * @param format the negotiated body format, or null for the route's own media type
+     */
+    String key(String routePath, RequestContext request, UserDetails user, String format) {
+        StringBuilder key = new StringBuilder(routePath);
+        for (int i = 0; i < request.pathValueCount(); i++) {
+            append(key, request.pathValue(i));
+        }
+        // Every occurrence counts, as List parameters see them all
+        for (String name : queryParams) {
+            List<String> values = request.queryValues(name);
+            key.append('|').append(values.size());
+            for (String value : values) {
+                append(key, value);
+            }
+        }
+        append(key, format);
+        append(key, perUser && user != null ? user.getUsername() : null);
+        return key.toString();
+    }
+
+    private static void append(StringBuilder key, String value) {
+        if (value == null) {
+            key.append('|');
+        } else {
+            key.append('|').append(value.length()).append(':').append(value);
+        }
+    }
+}
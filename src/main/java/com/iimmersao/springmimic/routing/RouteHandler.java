@@ -1,320 +1,327 @@
 package com.iimmersao.springmimic.routing;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.dataformat.xml.XmlMapper;
-import com.iimmersao.springmimic.annotations.*;
-import com.iimmersao.springmimic.core.ApplicationContext;
-import com.iimmersao.springmimic.security.Authenticator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.iimmersao.springmimic.core.CodecRegistry;
+import com.iimmersao.springmimic.security.AuthManager;
+import com.iimmersao.springmimic.security.SecurityContext;
 import com.iimmersao.springmimic.security.UserDetails;
 import com.iimmersao.springmimic.core.ExceptionHandler;
-import com.iimmersao.springmimic.core.util.PathUtils;
 import com.iimmersao.springmimic.openapi.MethodParameter;
-import com.iimmersao.springmimic.web.PageRequest;
+import com.iimmersao.springmimic.web.EventStream;
 import com.iimmersao.springmimic.web.ResponseFactory;
 import fi.iki.elonen.NanoHTTPD;
 import fi.iki.elonen.NanoHTTPD.IHTTPSession;
 import fi.iki.elonen.NanoHTTPD.Response;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class RouteHandler {
 
-    private final Object controllerInstance;
-    private final Method method;
+    private final HandlerInvoker invoker;
     private final List<MethodParameter> params;
-    private final ApplicationContext context;
-    private final boolean responseBodyPresent;
+    private final HandlerPlan plan;
+    private final AdaptiveConcurrencyLimiter limiter;
 
     private final String routePath;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    private final XmlMapper xmlMapper = new XmlMapper();
+    private final ResponseBodyWriter bodyWriter;
 
-    public RouteHandler(String routePath, Object controllerInstance, Method method,
-                        List<MethodParameter> params, ApplicationContext context,
-                        boolean responseBodyPresent) {
-        this.controllerInstance = controllerInstance;
-        this.method = method;
+    private final AuthManager authManager;
+    private final ResponseCache responseCache;
+    private final RequestCoalescer coalescer;
+
+    RouteHandler(String routePath, HandlerInvoker invoker, List<MethodParameter> params,
+                 HandlerPlan plan, ResponseBodyWriter bodyWriter, AdaptiveConcurrencyLimiter limiter,
+                 AuthManager authManager, ResponseCache responseCache, RequestCoalescer coalescer) {
+        this.invoker = invoker;
         this.routePath = routePath;
         this.params = params;
-        this.context = context;
-        this.responseBodyPresent = responseBodyPresent;
-    }
-
-    // Compiles route like /users/{id}/posts/{postId} into regex and records var names
-    private Pattern compilePattern(String routePath, List<String> varNames) {
-        StringBuilder regex = new StringBuilder();
-        regex.append("^");
-
-        // Split by '/', handle each segment
-        String[] segments = routePath.split("/");
-        for (String segment : segments) {
-            if (segment.isEmpty()) continue;
-            regex.append("/");
-
-            if (segment.startsWith("{") && segment.endsWith("}")) {
-                String varName = segment.substring(1, segment.length() - 1);
-                varNames.add(varName);
-                regex.append("([^/]+)");  // Capture group for variable
-            } else {
-                regex.append(Pattern.quote(segment));
-            }
-        }
-
-        regex.append("$");
-        return Pattern.compile(regex.toString());
+        this.plan = plan;
+        this.bodyWriter = bodyWriter;
+        this.limiter = limiter;
+        this.authManager = authManager;
+        this.responseCache = responseCache;
+        this.coalescer = coalescer;
     }
 
-    private Map<String, String> extractPathVariables(Matcher matcher) {
+    /**
+     * Handles a request whose path variables were captured by a regex match of this route's template.
+     */
+    public Response handle(IHTTPSession session, Matcher matcher) {
         if (!matcher.matches()) {
-            throw new IllegalArgumentException("Path pattern did not match URI");
+            return ExceptionHandler.handle(new IllegalArgumentException("Path pattern did not match URI"));
         }
-
-        Map<String, String> variables = new HashMap<>();
-        List<String> paramNames = PathUtils.extractPathParamNames(routePath);
-
-        try {
-            for (int i = 0; i < paramNames.size(); i++) {
-                String value = matcher.group(i + 1);
-                if (value == null) {
-                    throw new IllegalArgumentException("Missing value for path variable: " + paramNames.get(i));
-                }
-                variables.put(paramNames.get(i), value);
-            }
-        } catch (IndexOutOfBoundsException e) {
-            throw new IllegalArgumentException("Path variable extraction failed: " + e.getMessage());
+        String[] pathValues = new String[matcher.groupCount()];
+        for (int i = 0; i < pathValues.length; i++) {
+            pathValues[i] = matcher.group(i + 1);
         }
+        return handle(session, pathValues);
+    }
 
-        return variables;
+    public Response handle(IHTTPSession session, RouteMatch match) {
+        return handle(session, match.getPathValues());
     }
 
-    private Map<String, List<String>> decodeQueryParams(String queryString) {
-        Map<String, List<String>> result = new HashMap<>();
-        if (queryString == null || queryString.isEmpty()) return result;
+    public Response handle(IHTTPSession session, String[] pathValues) {
+        if (limiter == null) {
+            return invokeHandler(session, pathValues);
+        }
 
-        for (String pair : queryString.split("&")) {
-            String[] kv = pair.split("=", 2);
-            String key = kv[0];
-            String value = kv.length > 1 ? kv[1] : "";
-            result.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+        long start = System.nanoTime();
+        if (!limiter.tryAcquire()) {
+            return ResponseFactory.serviceUnavailable("Concurrency limit reached, please retry", 1);
+        }
+        try {
+            return invokeHandler(session, pathValues);
+        } finally {
+            limiter.release(start);
         }
-        return result;
     }
 
-    public Response handle(IHTTPSession session, Matcher matcher) {
+    private Response invokeHandler(IHTTPSession session, String[] pathValues) {
+        RequestContext request = new RequestContext(session, pathValues);
+        Response response;
         try {
-            // --- 1. Check if authentication is required ---
-            boolean requiresAuth = method.isAnnotationPresent(Authenticated.class);
-            UserDetails user = null;
-
-            if (requiresAuth) {
-                // Get Authorization header
-                String authHeader = session.getHeaders().get("authorization");
-                if (authHeader == null || !authHeader.startsWith("Basic ")) {
-                    return ResponseFactory.unauthorized("Missing or invalid Authorization header");
-                }
+            request.checkBodySize(plan.maxBodyBytes());
+            response = authorizeAndInvoke(session, request);
+            if (plan.etag()) {
+                response = EntityTags.notModifiedIfMatching(session, response);
+            }
+        } catch (Exception e) {
+            response = ExceptionHandler.handle(e);
+        }
 
-                // Decode credentials
-                String base64Credentials = authHeader.substring("Basic ".length()).trim();
-                String decoded = new String(Base64.getDecoder().decode(base64Credentials));
-                String[] parts = decoded.split(":", 2);
-                if (parts.length != 2) {
-                    return ResponseFactory.unauthorized("Invalid Authorization header format");
+        // A body nobody read would otherwise be parsed as the next request on this connection
+        if (!plan.handlesRawBody()) {
+            try {
+                if (!request.discardUnreadBody()) {
+                    response.closeConnection(true);
                 }
+            } catch (IOException e) {
+                response.closeConnection(true);
+            }
+        }
+        return response;
+    }
 
-                String username = parts[0];
-                String password = parts[1];
-
-                // Authenticate user
-                Authenticator authenticator = context.getBean(Authenticator.class);
-                user = authenticator.authenticate(username, password);  // Throws UnauthorizedException if invalid
-
-                // --- 2. Check roles if @RolesAllowed is present ---
-                if (method.isAnnotationPresent(RolesAllowed.class)) {
-                    RolesAllowed rolesAllowed = method.getAnnotation(RolesAllowed.class);
-                    List<String> requiredRoles = Arrays.asList(rolesAllowed.value());
-
-                    boolean hasRole = requiredRoles.stream().anyMatch(user.getRoles()::contains);
-                    if (!hasRole) {
-                        return ResponseFactory.forbidden("Forbidden - User lacks required role(s)");
+    private Response authorizeAndInvoke(IHTTPSession session, RequestContext request) throws Exception {
+        // --- 1. Check if authentication is required ---
+        UserDetails user = null;
+
+        if (plan.requiresAuth()) {
+            // An application-supplied AuthManager takes precedence over the configured one
+            AuthManager manager = SecurityContext.getAuthManager();
+            user = (manager != null ? manager : authManager).authenticate(session);  // Throws UnauthorizedException
+
+            // --- 2. Check roles if @RolesAllowed is present ---
+            Set<String> requiredRoles = plan.requiredRoles();
+            if (requiredRoles != null) {
+                boolean hasRole = false;
+                for (String role : user.getRoles()) {
+                    if (requiredRoles.contains(role)) {
+                        hasRole = true;
+                        break;
                     }
                 }
-            }
-
-            Parameter[] parameters = method.getParameters();
-            Object[] args = new Object[parameters.length];
-
-            // Extract path variables
-            Map<String, String> pathVariables = extractPathVariables(matcher);
-
-            // Extract query params (as Map<String, List<String>>)
-            String queryString = session.getQueryParameterString();
-            Map<String, List<String>> queryParams = decodeQueryParams(queryString);
-
-            // Extract request body if needed
-            String rawBody = null;
-            String httpMethod = session.getMethod().name();
-            if (httpMethod.equals("POST") || httpMethod.equals("PUT") || httpMethod.equals("PATCH")) {
-                String contentLengthHeader = session.getHeaders().get("content-length");
-                if (contentLengthHeader != null) {
-                    int contentLength = Integer.parseInt(contentLengthHeader);
-                    rawBody = new String(session.getInputStream().readNBytes(contentLength), StandardCharsets.UTF_8);
+                if (!hasRole) {
+                    return ResponseFactory.forbidden("Forbidden - User lacks required role(s)");
                 }
             }
+        }
 
-            // Resolve arguments
-            for (int i = 0; i < parameters.length; i++) {
-                Parameter param = parameters[i];
-
-                if (param.getType().equals(PageRequest.class)) {
-                    PageRequest pageRequest = new PageRequest();
-
-                    List<String> pageVals = queryParams.get("page");
-                    List<String> sizeVals = queryParams.get("size");
-                    List<String> sortVals = queryParams.get("sort");
-
-                    if (pageVals != null && !pageVals.isEmpty()) {
-                        try {
-                            pageRequest.setPage(Integer.parseInt(pageVals.getFirst()));
-                        } catch (NumberFormatException ignored) {}
-                    }
+        ResponseCachePolicy cachePolicy = plan.cachePolicy();
+        EntityVersionTag versionTag = plan.versionTag();
+        if (cachePolicy == null && plan.singleFlightTimeoutNanos() == 0 && versionTag == null) {
+            return invoke(session, request);
+        }
 
-                    if (sizeVals != null && !sizeVals.isEmpty()) {
-                        try {
-                            pageRequest.setSize(Integer.parseInt(sizeVals.getFirst()));
-                        } catch (NumberFormatException ignored) {}
-                    }
+        // Responses are cached, shared and tagged per negotiated format
+        String format = negotiateFormat(session);
 
-                    if (sortVals != null && !sortVals.isEmpty()) {
-                        pageRequest.setSortBy(sortVals.getFirst());
-                    }
+        // Unchanged entities mean an unchanged response, so the handler need not run at all
+        if (versionTag != null) {
+            String etag = versionTag.current(user, format);
+            if (EntityTags.matches(session.getHeaders().get("if-none-match"), etag)) {
+                return EntityTags.notModified(etag, plan.binaryWriters().isEmpty() ? null : "Accept");
+            }
+        }
 
-                    args[i] = pageRequest;
-                    continue;
-                }
+        // A cached response skips argument resolution, the controller and serialization
+        if (cachePolicy != null) {
+            String cacheKey = cachePolicy.key(routePath, request, user, format);
+            Response cached = responseCache.get(cacheKey);
+            if (cached != null) {
+                return cached;
+            }
+            return invokeCoalesced(session, request, user, format, cacheKey);
+        }
+        return invokeCoalesced(session, request, user, format, null);
+    }
 
-                if (param.isAnnotationPresent(PathVariable.class)) {
-                    String name = param.getAnnotation(PathVariable.class).value();
-                    String value = pathVariables.get(name);
-                    if (value == null) {
-                        throw new IllegalArgumentException("Missing path variable: " + name);
-                    }
-                    args[i] = convertValue(value, param.getType(), name);
-
-                } else if (param.isAnnotationPresent(RequestParam.class)) {
-                    String name = param.getAnnotation(RequestParam.class).value();
-                    List<String> values = queryParams.get(name);
-
-                    if (values != null && !values.isEmpty()) {
-                        args[i] = convertValue(values.getFirst(), param.getType(), name);
-                    } else {
-                        args[i] = null; // treat as optional
-                        if (param.getType().isPrimitive()) {
-                            throw new IllegalArgumentException("Missing required request parameter: " + name);
-                        }
-                    }
+    /**
+     * Invokes the handler, or shares the response of an identical request already doing so. Only
+     * the request that invoked it caches the response, and not if the route was invalidated
+     * since just before the handler ran.
+     */
+    private Response invokeCoalesced(IHTTPSession session, RequestContext request, UserDetails user, String format,
+                                     String cacheKey) throws Exception {
+        RequestCoalescer.Call call = cacheKey == null
+                ? () -> invokeTagged(session, request, user, format)
+                : () -> {
+                    long generation = responseCache.generation();
+                    return responseCache.put(cacheKey, routePath, invokeTagged(session, request, user, format),
+                            plan.cachePolicy().ttlNanos(), generation);
+                };
+        if (plan.singleFlightTimeoutNanos() == 0) {
+            return call.run();
+        }
+        String key = RequestCoalescer.key(routePath, user != null ? user.getUsername() : null, format,
+                session.getUri(), session.getQueryParameterString());
+        return coalescer.execute(key, plan.singleFlightTimeoutNanos(), call);
+    }
 
-                } else if (param.isAnnotationPresent(RequestBody.class)) {
-                    if (rawBody == null || rawBody.isBlank()) {
-                        throw new IllegalArgumentException("Missing request body");
-                    }
-                    args[i] = objectMapper.readValue(rawBody, param.getType());
+    /**
+     * Tags a response of an @ETag(entities) route with the versions read just before the handler
+     * ran, so a write racing with it leaves the tag older than the body, never newer. Cached and
+     * shared copies keep the tag of the invocation that produced them.
+     */
+    private Response invokeTagged(IHTTPSession session, RequestContext request, UserDetails user, String format)
+            throws Exception {
+        EntityVersionTag versionTag = plan.versionTag();
+        if (versionTag == null) {
+            return invoke(session, request);
+        }
+        String etag = versionTag.current(user, format);
+        Response response = invoke(session, request);
+        if (response.getStatus() == Response.Status.OK) {
+            response.addHeader("ETag", etag);
+        }
+        return response;
+    }
 
-                } else if (param.getType().equals(NanoHTTPD.IHTTPSession.class)) {
-                        args[i] = session;
-                } else {
-                    args[i] = null;
-                }
-            }
+    private Response invoke(IHTTPSession session, RequestContext request) throws Exception {
+        // Resolve arguments
+        ArgumentResolver[] resolvers = plan.resolvers();
+        Object[] args = new Object[resolvers.length];
+        for (int i = 0; i < resolvers.length; i++) {
+            args[i] = resolvers[i].resolve(request);
+        }
 
-            // Invoke and serialize result
-            Object result = method.invoke(controllerInstance, args);
+        // Invoke and serialize result
+        Object result = invoker.invoke(args);
+        if (plan.asyncTimeoutNanos() > 0) {
+            result = await(result);
+        }
 
-            if (responseBodyPresent) {
-                return createSerializedResponse(result, method);
-            }
+        if (plan.eventStream()) {
+            return bodyWriter.writeEvents((EventStream) result);
+        }
+        if (plan.serializeResult()) {
+            return createSerializedResponse(session, result);
+        }
 
-            // If not marked with @ResponseBody/@RestController, maybe still annotated with @Produces
-            Produces produces = method.getAnnotation(Produces.class);
-            if (produces != null && isStructuredMediaType(produces.value())) {
-                return createSerializedResponse(result, method);
-            }
+        // Otherwise, assume it's a plain text or manually constructed response
+        if (result instanceof NanoHTTPD.Response) {
+            return (NanoHTTPD.Response) result;
+        }
 
-            // Otherwise, assume it's a plain text or manually constructed response
-            if (result instanceof NanoHTTPD.Response) {
-                return (NanoHTTPD.Response) result;
-            }
+        return NanoHTTPD.newFixedLengthResponse(
+                NanoHTTPD.Response.Status.OK,
+                "text/plain",
+                result != null ? result.toString() : ""
+        );
+    }
 
-            return NanoHTTPD.newFixedLengthResponse(
-                    NanoHTTPD.Response.Status.OK,
-                    "text/plain",
-                    result != null ? result.toString() : ""
-            );
+    /**
+     * Waits for a returned future on the connection's thread, which NanoHTTPD needs to write
+     * the response; with {@code server.executor=virtual} the wait only parks a virtual thread.
+     */
+    private Object await(Object result) throws Exception {
+        if (result == null) {
+            return null;
+        }
+        Future<?> future = result instanceof CompletionStage<?> stage ? stage.toCompletableFuture() : (Future<?>) result;
+        try {
+            return future.get(plan.asyncTimeoutNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new TimeoutException("Handler did not complete within "
+                    + TimeUnit.NANOSECONDS.toMillis(plan.asyncTimeoutNanos()) + " ms");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
 
-        } catch (InvocationTargetException e) {
-            return ExceptionHandler.handle((Exception) e.getTargetException());
-        } catch (Exception e) {
-            return ExceptionHandler.handle(e);
+    /**
+     * The binary format (or, for a streamed result, NDJSON) the client asked for, or null for
+     * the route's own media type.
+     */
+    private String negotiateFormat(IHTTPSession session) {
+        if (plan.binaryWriters().isEmpty()) {
+            return null;
         }
+        String accept = session.getHeaders().get("accept");
+        return plan.streamResult() ? CodecRegistry.negotiateStream(accept) : CodecRegistry.negotiateBinary(accept);
     }
 
-    private NanoHTTPD.Response createSerializedResponse(Object result, Method method) throws JsonProcessingException {
-        Produces produces = method.getAnnotation(Produces.class);
+    private NanoHTTPD.Response createSerializedResponse(IHTTPSession session, Object result) throws IOException {
+        if (plan.streamResult()) {
+            return createStreamedResponse(session, result);
+        }
+        String producesMediaType = plan.producesMediaType();
         String mediaType;
 
-        if (produces == null && result instanceof String) {
+        if (producesMediaType == null && result instanceof String) {
             mediaType = "text/plain";
         } else {
-            mediaType = produces != null ? produces.value() : "application/json";
+            mediaType = producesMediaType != null ? producesMediaType : "application/json";
         }
 
-        String body;
-        if (result == null) {
-            body = "";
-        } else if (result instanceof String && mediaType.equalsIgnoreCase("text/plain")) {
-            body = (String) result;
-        } else if (mediaType.equalsIgnoreCase("application/xml")) {
-            // Example XML serialization
-            body = xmlMapper.writeValueAsString(result); // You must have a configured XmlMapper instance
-        } else {
-            body = objectMapper.writeValueAsString(result);
+        if (plan.binaryWriters().isEmpty() || mediaType.equals("text/plain")) {
+            return bodyWriter.write(result, mediaType, plan.resultWriter(), plan.etag());
         }
 
-        return NanoHTTPD.newFixedLengthResponse(NanoHTTPD.Response.Status.OK, mediaType, body);
+        String binary = CodecRegistry.negotiateBinary(session.getHeaders().get("accept"));
+        Response response = binary != null
+                ? bodyWriter.write(result, binary, plan.binaryWriters().get(binary), plan.etag())
+                : bodyWriter.write(result, mediaType, plan.resultWriter(), plan.etag());
+        response.addHeader("Vary", "Accept");
+        return response;
     }
 
-    private boolean isStructuredMediaType(String mediaType) {
-        return "application/json".equalsIgnoreCase(mediaType)
-                || "application/xml".equalsIgnoreCase(mediaType)
-                || "text/xml".equalsIgnoreCase(mediaType);
-    }
-
-    private Object convertValue(String raw, Class<?> type, String name) {
-        if (raw == null) return null;
-        if (type == String.class) return raw;
-
-        if (type == int.class || type == Integer.class) return Integer.parseInt(raw);
-        if (type == long.class || type == Long.class) return Long.parseLong(raw);
-
-        if (type == boolean.class || type == Boolean.class) {
-            if (!raw.equalsIgnoreCase("true") && !raw.equalsIgnoreCase("false")) {
-                throw new IllegalArgumentException("Invalid value for request parameter '"
-                        + name + "' - Expected 'true' or 'false'");
-            }
-            return Boolean.parseBoolean(raw);
+    private NanoHTTPD.Response createStreamedResponse(IHTTPSession session, Object result) throws IOException {
+        if (CodecRegistry.NDJSON.equalsIgnoreCase(plan.producesMediaType())) {
+            return bodyWriter.writeSequence(result, CodecRegistry.NDJSON, plan.resultWriter(), true);
         }
-
-        throw new IllegalArgumentException("Unsupported parameter type: " + type.getSimpleName());
+        // Otherwise the route produces JSON, so CBOR, Smile and NDJSON can be negotiated
+        String format = negotiateFormat(session);
+        Response response;
+        if (format == null) {
+            response = bodyWriter.writeSequence(result, CodecRegistry.JSON, plan.resultWriter(), false);
+        } else if (format.equals(CodecRegistry.NDJSON)) {
+            response = bodyWriter.writeSequence(result, format, plan.resultWriter(), true);
+        } else {
+            response = bodyWriter.writeSequence(result, format, plan.binaryWriters().get(format), false);
+        }
+        response.addHeader("Vary", "Accept");
+        return response;
     }
 
     public List<MethodParameter> getMethodParameters() {
         return params;
     }
+
+    /**
+     * The limiter guarding this route (possibly shared with other routes), or null if unlimited.
+     */
+    public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+        return limiter;
+    }
 }
@@ -1,21 +1,87 @@
 package com.iimmersao.springmimic.routing;
 
-import com.iimmersao.springmimic.annotations.Component;
-import com.iimmersao.springmimic.annotations.ResponseBody;
-import com.iimmersao.springmimic.annotations.RestController;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.iimmersao.springmimic.annotations.*;
 import com.iimmersao.springmimic.core.ApplicationContext;
+import com.iimmersao.springmimic.core.CodecRegistry;
+import com.iimmersao.springmimic.core.ConfigLoader;
+import com.iimmersao.springmimic.core.TypeConverter;
+import com.iimmersao.springmimic.core.TypeConverterRegistry;
+import com.iimmersao.springmimic.core.util.PathUtils;
+import com.iimmersao.springmimic.database.DatabaseClient;
 import com.iimmersao.springmimic.openapi.MethodParameter;
+import com.iimmersao.springmimic.security.*;
+import com.iimmersao.springmimic.web.EventStream;
+import com.iimmersao.springmimic.web.PageRequest;
+import fi.iki.elonen.NanoHTTPD;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 @Component
 public class RouteHandlerFactory {
 
     private final ApplicationContext context;
+    private final ConfigLoader config;
+    private final CodecRegistry codecs;
+    private final TypeConverterRegistry converters;
+    // Shared by every route without its own @ConcurrencyLimit; null unless server.limiter.enabled
+    private final AdaptiveConcurrencyLimiter globalLimiter;
+    private final ResponseBodyWriter bodyWriter;
+    private final long maxBodyBytes;
+    private final boolean etagByDefault;
+    private final long asyncTimeoutMillis;
+    // Shared by every @Authenticated route
+    private final CredentialCache credentials;
+    // Null unless security.auth.mode accepts tokens
+    private final TokenService tokens;
+    private final AuthManager authManager;
+    private volatile Authenticator authenticator;
+    private final ResponseCache responseCache;
+    private final RequestCoalescer coalescer;
 
     public RouteHandlerFactory(ApplicationContext context) {
+        this(context, null);
+    }
+
+    public RouteHandlerFactory(ApplicationContext context, ConfigLoader config) {
+        this(context, config, new CodecRegistry());
+    }
+
+    public RouteHandlerFactory(ApplicationContext context, ConfigLoader config, CodecRegistry codecs) {
+        this(context, config, codecs, new TypeConverterRegistry());
+    }
+
+    public RouteHandlerFactory(ApplicationContext context, ConfigLoader config, CodecRegistry codecs,
+                               TypeConverterRegistry converters) {
         this.context = context;
+        this.config = config;
+        this.codecs = codecs;
+        this.converters = converters;
+        this.globalLimiter = config != null && config.getBoolean("server.limiter.enabled", false)
+                ? AdaptiveConcurrencyLimiter.fromConfig("global", config, -1, -1, -1)
+                : null;
+        this.bodyWriter = ResponseBodyWriter.fromConfig(codecs, config);
+        this.maxBodyBytes = config != null ? config.getLong("server.request.maxBodyBytes", 10L * 1024 * 1024) : 0;
+        this.etagByDefault = config != null && config.getBoolean("server.etag.enabled", false);
+        this.asyncTimeoutMillis = config != null ? config.getLong("server.async.timeoutMillis", 30_000) : 30_000;
+        this.credentials = CredentialCache.fromConfig(config);
+        String authMode = config != null ? config.get("security.auth.mode", "basic").trim().toLowerCase() : "basic";
+        this.tokens = authMode.equals("basic") ? null : TokenService.fromConfig(config);
+        this.authManager = createAuthManager(authMode);
+        this.responseCache = ResponseCache.fromConfig(config);
+        this.coalescer = new RequestCoalescer(
+                config != null ? config.getLong("server.singleFlight.maxSharedBytes", 1024 * 1024) : 1024 * 1024);
     }
 
     public RouteHandler create(String method,
@@ -28,6 +94,260 @@ public class RouteHandlerFactory {
                         || handlerMethod.getDeclaringClass().isAnnotationPresent(ResponseBody.class)
                         || handlerMethod.getDeclaringClass().isAnnotationPresent(RestController.class);
 
-        return new RouteHandler(path, handlerInstance, handlerMethod, parameters, context, responseBodyPresent);
+        HandlerPlan plan = createPlan(method, path, handlerMethod, responseBodyPresent);
+
+        HandlerInvoker invoker = HandlerInvoker.create(handlerInstance, handlerMethod);
+
+        ConcurrencyLimit concurrencyLimit = handlerMethod.getAnnotation(ConcurrencyLimit.class);
+        AdaptiveConcurrencyLimiter limiter = concurrencyLimit != null
+                ? AdaptiveConcurrencyLimiter.fromConfig(method + " " + path, config, concurrencyLimit.initialLimit(),
+                        concurrencyLimit.minLimit(), concurrencyLimit.maxLimit())
+                : globalLimiter;
+
+        return new RouteHandler(path, invoker, parameters, plan, bodyWriter, limiter, authManager,
+                responseCache, coalescer);
+    }
+
+    public CodecRegistry getCodecRegistry() {
+        return codecs;
+    }
+
+    public TypeConverterRegistry getTypeConverterRegistry() {
+        return converters;
+    }
+
+    public AdaptiveConcurrencyLimiter getGlobalLimiter() {
+        return globalLimiter;
+    }
+
+    public CredentialCache getCredentialCache() {
+        return credentials;
+    }
+
+    /**
+     * The cache of @CacheResponse routes, for invalidation and metrics.
+     */
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Counts requests to @SingleFlight routes that shared another request's response.
+     */
+    public RequestCoalescer getRequestCoalescer() {
+        return coalescer;
+    }
+
+    public AuthManager getAuthManager() {
+        return authManager;
+    }
+
+    /**
+     * The login endpoint that issues tokens, or null when token authentication is not enabled.
+     */
+    public TokenController createTokenController() {
+        return tokens != null ? new TokenController(tokens, this::authenticator) : null;
+    }
+
+    // security.auth.mode: basic | token | basic,token (either, by the Authorization scheme)
+    private AuthManager createAuthManager(String authMode) {
+        BasicAuthManager basic = new BasicAuthManager(this::authenticator, credentials);
+        return switch (authMode.replace(" ", "")) {
+            case "basic" -> basic;
+            case "token" -> new TokenAuthManager(tokens);
+            case "basic,token", "token,basic" -> {
+                TokenAuthManager token = new TokenAuthManager(tokens);
+                yield session -> {
+                    String authHeader = session.getHeaders().get("authorization");
+                    return authHeader != null && authHeader.startsWith("Bearer ")
+                            ? token.authenticate(session)
+                            : basic.authenticate(session);
+                };
+            }
+            default -> throw new IllegalArgumentException("Unsupported security.auth.mode: " + authMode);
+        };
+    }
+
+    // Looked up on first use, as it may be registered after the routes
+    private Authenticator authenticator() {
+        Authenticator resolved = authenticator;
+        if (resolved == null) {
+            resolved = context.getBean(Authenticator.class);
+            authenticator = resolved;
+        }
+        return resolved;
+    }
+
+    HandlerPlan createPlan(String httpMethod, String path, Method handlerMethod, boolean responseBodyPresent) {
+        List<String> pathVariableNames = PathUtils.extractPathParamNames(path);
+
+        Parameter[] javaParams = handlerMethod.getParameters();
+        ArgumentResolver[] resolvers = new ArgumentResolver[javaParams.length];
+        boolean handlesRawBody = false;
+        for (int i = 0; i < javaParams.length; i++) {
+            resolvers[i] = createResolver(javaParams[i], pathVariableNames, handlerMethod);
+            handlesRawBody |= resolvers[i] == ArgumentResolvers.session();
+        }
+
+        boolean requiresAuth = handlerMethod.isAnnotationPresent(Authenticated.class);
+        RolesAllowed rolesAllowed = handlerMethod.getAnnotation(RolesAllowed.class);
+        Set<String> requiredRoles = rolesAllowed != null ? Set.of(rolesAllowed.value()) : null;
+
+        Produces produces = handlerMethod.getAnnotation(Produces.class);
+        String producesMediaType = produces != null ? produces.value() : null;
+        // Without @ResponseBody/@RestController, a structured @Produces still asks for serialization
+        boolean serializeResult = responseBodyPresent
+                || (producesMediaType != null && isStructuredMediaType(producesMediaType));
+
+        // A returned future is waited for, and its value handled like a direct return value
+        long asyncTimeoutNanos = 0;
+        Type returnType = handlerMethod.getGenericReturnType();
+        Class<?> rawReturnType = handlerMethod.getReturnType();
+        if (CompletionStage.class.isAssignableFrom(rawReturnType) || Future.class.isAssignableFrom(rawReturnType)) {
+            AsyncTimeout asyncTimeout = handlerMethod.getAnnotation(AsyncTimeout.class);
+            long timeoutMillis = asyncTimeout != null ? asyncTimeout.millis() : asyncTimeoutMillis;
+            // Without a timeout the future itself would be serialized rather than waited for
+            if (timeoutMillis <= 0) {
+                throw new IllegalStateException("Async timeout must be positive, was " + timeoutMillis
+                        + " ms: " + handlerMethod);
+            }
+            asyncTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            returnType = returnType instanceof ParameterizedType future
+                    ? future.getActualTypeArguments()[0]
+                    : Object.class;
+        }
+
+        // A returned EventStream is written as events, however the route is annotated
+        boolean eventStream = EventStream.class.isAssignableFrom(rawClass(returnType));
+        // A returned Stream or Iterator is written element by element, each by its runtime type
+        boolean streamResult = serializeResult && isElementSequence(returnType);
+        if (streamResult && producesMediaType != null && !CodecRegistry.JSON.equalsIgnoreCase(producesMediaType)
+                && !CodecRegistry.NDJSON.equalsIgnoreCase(producesMediaType)) {
+            throw new IllegalStateException(
+                    "Stream and Iterator results can only be written as JSON or NDJSON: " + handlerMethod);
+        }
+
+        ObjectWriter resultWriter = null;
+        Map<String, ObjectWriter> binaryWriters = Map.of();
+        if (streamResult) {
+            resultWriter = codecs.jsonWriter();
+            if (producesMediaType == null || CodecRegistry.JSON.equalsIgnoreCase(producesMediaType)) {
+                binaryWriters = Map.of(CodecRegistry.CBOR, codecs.writer(CodecRegistry.CBOR, Object.class),
+                        CodecRegistry.SMILE, codecs.writer(CodecRegistry.SMILE, Object.class));
+            }
+        } else if (serializeResult && !eventStream) {
+            resultWriter = producesMediaType != null && ResponseBodyWriter.isXml(producesMediaType)
+                    ? codecs.xmlWriter(returnType)
+                    : codecs.jsonWriter(returnType);
+            // JSON routes answer in CBOR or Smile when the client prefers it
+            if (producesMediaType == null || CodecRegistry.JSON.equalsIgnoreCase(producesMediaType)) {
+                binaryWriters = Map.of(CodecRegistry.CBOR, codecs.writer(CodecRegistry.CBOR, returnType),
+                        CodecRegistry.SMILE, codecs.writer(CodecRegistry.SMILE, returnType));
+            }
+        }
+
+        ResponseCachePolicy cachePolicy = null;
+        CacheResponse cacheResponse = handlerMethod.getAnnotation(CacheResponse.class);
+        if (cacheResponse != null) {
+            if (!httpMethod.equals("GET")) {
+                throw new IllegalStateException("@CacheResponse is only supported on GET routes: " + handlerMethod);
+            }
+            cachePolicy = new ResponseCachePolicy(TimeUnit.SECONDS.toNanos(cacheResponse.ttlSeconds()),
+                    cacheResponse.queryParams(), cacheResponse.perUser());
+        }
+
+        long singleFlightTimeoutNanos = 0;
+        SingleFlight singleFlight = handlerMethod.getAnnotation(SingleFlight.class);
+        if (singleFlight != null) {
+            // A handler reading the session could answer identical URIs differently
+            if (!httpMethod.equals("GET") || handlesRawBody) {
+                throw new IllegalStateException(
+                        "@SingleFlight is only supported on GET routes that do not take the session: " + handlerMethod);
+            }
+            singleFlightTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(singleFlight.timeoutMillis());
+        }
+
+        ETag etagAnnotation = handlerMethod.getAnnotation(ETag.class);
+        // A conditional write must not be performed and then answered 304 (RFC 9110 13.1.2)
+        if (etagAnnotation != null && etagAnnotation.value() && !httpMethod.equals("GET")) {
+            throw new IllegalStateException("@ETag is only supported on GET routes: " + handlerMethod);
+        }
+        EntityVersionTag versionTag = null;
+        if (etagAnnotation != null && etagAnnotation.value() && etagAnnotation.entities().length > 0) {
+            versionTag = new EntityVersionTag(context.getBean(DatabaseClient.class).getEntityVersions(),
+                    etagAnnotation.entities().clone());
+        }
+        // A version-based ETag replaces the checksum, which would mean serializing the body first
+        boolean etag = httpMethod.equals("GET") && serializeResult && !streamResult && !eventStream && versionTag == null
+                && (etagAnnotation != null ? etagAnnotation.value() : etagByDefault);
+
+        return new HandlerPlan(resolvers, requiresAuth, requiredRoles, producesMediaType, serializeResult,
+                streamResult, eventStream, resultWriter, binaryWriters, maxBodyBytes, handlesRawBody, cachePolicy,
+                singleFlightTimeoutNanos, etag, versionTag, asyncTimeoutNanos);
+    }
+
+    private ArgumentResolver createResolver(Parameter param, List<String> pathVariableNames, Method handlerMethod) {
+        Class<?> type = param.getType();
+
+        if (type.equals(PageRequest.class)) {
+            return ArgumentResolvers.pageRequest();
+        }
+
+        PathVariable pathVariable = param.getAnnotation(PathVariable.class);
+        if (pathVariable != null) {
+            String name = pathVariable.value();
+            return ArgumentResolvers.pathVariable(name, pathVariableNames.indexOf(name), type,
+                    converterFor(type, param, handlerMethod));
+        }
+
+        RequestParam requestParam = param.getAnnotation(RequestParam.class);
+        if (requestParam != null) {
+            // A List takes every occurrence of a repeated parameter
+            if (type.equals(List.class) && param.getParameterizedType() instanceof ParameterizedType list
+                    && list.getActualTypeArguments()[0] instanceof Class<?> elementType) {
+                return ArgumentResolvers.requestParamList(requestParam.value(), elementType,
+                        converterFor(elementType, param, handlerMethod));
+            }
+            return ArgumentResolvers.requestParam(requestParam.value(), type, converterFor(type, param, handlerMethod));
+        }
+
+        if (param.isAnnotationPresent(RequestBody.class)) {
+            Type bodyType = param.getParameterizedType();
+            return ArgumentResolvers.requestBody(codecs.jsonReader(bodyType),
+                    Map.of(CodecRegistry.CBOR, codecs.reader(CodecRegistry.CBOR, bodyType),
+                            CodecRegistry.SMILE, codecs.reader(CodecRegistry.SMILE, bodyType)));
+        }
+
+        if (type.equals(NanoHTTPD.IHTTPSession.class)) {
+            return ArgumentResolvers.session();
+        }
+
+        return ArgumentResolvers.none();
+    }
+
+    private TypeConverter<?> converterFor(Class<?> type, Parameter param, Method handlerMethod) {
+        TypeConverter<?> converter = converters.converterFor(type);
+        if (converter == null) {
+            throw new IllegalStateException("No TypeConverter registered for " + type.getName()
+                    + " (parameter " + param.getName() + " of " + handlerMethod + ")");
+        }
+        return converter;
+    }
+
+    private static boolean isElementSequence(Type type) {
+        Class<?> raw = rawClass(type);
+        return Stream.class.isAssignableFrom(raw) || Iterator.class.isAssignableFrom(raw);
+    }
+
+    private static Class<?> rawClass(Type type) {
+        Type raw = type instanceof ParameterizedType parameterized ? parameterized.getRawType() : type;
+        return raw instanceof Class<?> rawClass ? rawClass : Object.class;
+    }
+
+    private boolean isStructuredMediaType(String mediaType) {
+        return "application/json".equalsIgnoreCase(mediaType)
+                || "application/xml".equalsIgnoreCase(mediaType)
+                || "text/xml".equalsIgnoreCase(mediaType)
+                || CodecRegistry.NDJSON.equalsIgnoreCase(mediaType);
     }
 }
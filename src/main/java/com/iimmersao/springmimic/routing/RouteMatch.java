@@ -1,21 +1,37 @@
 package com.iimmersao.springmimic.routing;
 
-import java.util.regex.Matcher;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class RouteMatch {
+    static final String[] NO_VALUES = new String[0];
+
     private final RouteHandler handler;
-    private final Matcher matcher;
+    private final String[] variableNames;
+    private final String[] pathValues;
 
-    public RouteMatch(RouteHandler handler, Matcher matcher) {
+    public RouteMatch(RouteHandler handler, String[] variableNames, String[] pathValues) {
         this.handler = handler;
-        this.matcher = matcher;
+        this.variableNames = variableNames;
+        this.pathValues = pathValues;
     }
 
     public RouteHandler getHandler() {
         return handler;
     }
 
-    public Matcher getMatcher() {
-        return matcher;
+    /**
+     * Path variable values in the order the variables appear in the route template.
+     */
+    public String[] getPathValues() {
+        return pathValues;
+    }
+
+    public Map<String, String> getPathVariables() {
+        Map<String, String> variables = new LinkedHashMap<>();
+        for (int i = 0; i < variableNames.length; i++) {
+            variables.put(variableNames[i], pathValues[i]);
+        }
+        return variables;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,173 @@
+package com.iimmersao.springmimic.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Segment trie holding the routes registered for a single HTTP method.
+ * <p>
+ * Each '/'-separated segment of a route template becomes one level of the trie. Literal
+ * segments are looked up by hash, whole-segment variables such as {@code {id}} match any
+ * non-empty segment, and segments mixing text and variables (e.g. {@code {name}.txt}) fall
+ * back to a per-segment pattern. At every level literals are tried first, then mixed
+ * segments, then plain variables, backtracking if a more specific branch dead-ends.
+ */
+final class RouteTrie {
+
+    private static final Pattern SEGMENT_VARIABLE = Pattern.compile("\\{([^/]+?)}");
+
+    private final Node root = new Node();
+    private int maxVariables;
+
+    /**
+     * Adds a route template. Returns false, leaving the existing route in place,
+     * if an equivalent template has already been registered.
+     */
+    boolean insert(String path, RouteHandler handler) {
+        String template = path.startsWith("/") ? path : "/" + path;
+        List<String> names = new ArrayList<>();
+        Node node = root;
+
+        for (String segment : template.substring(1).split("/", -1)) {
+            node = node.child(segment, names);
+        }
+
+        if (node.handler != null) {
+            return false;
+        }
+        node.handler = handler;
+        node.variableNames = names.toArray(new String[0]);
+        maxVariables = Math.max(maxVariables, names.size());
+        return true;
+    }
+
+    RouteMatch find(String uri) {
+        if (uri == null || uri.isEmpty() || uri.charAt(0) != '/') {
+            return null;
+        }
+
+        String[] values = maxVariables == 0 ? null : new String[maxVariables];
+        Node terminal = match(root, uri, 1, values, 0);
+        if (terminal == null) {
+            return null;
+        }
+
+        String[] pathValues = terminal.variableNames.length == 0
+                ? RouteMatch.NO_VALUES
+                : Arrays.copyOf(values, terminal.variableNames.length);
+        return new RouteMatch(terminal.handler, terminal.variableNames, pathValues);
+    }
+
+    private Node match(Node node, String uri, int start, String[] values, int count) {
+        int end = uri.indexOf('/', start);
+        boolean last = end < 0;
+        if (last) {
+            end = uri.length();
+        }
+
+        if (node.literals != null) {
+            Node literal = node.literals.get(uri.substring(start, end));
+            if (literal != null) {
+                Node found = descend(literal, uri, end, last, values, count);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+
+        if (node.patterns != null) {
+            String segment = uri.substring(start, end);
+            for (Node candidate : node.patterns) {
+                Matcher matcher = candidate.segmentPattern.matcher(segment);
+                if (matcher.matches()) {
+                    int groups = matcher.groupCount();
+                    for (int i = 0; i < groups; i++) {
+                        values[count + i] = matcher.group(i + 1);
+                    }
+                    Node found = descend(candidate, uri, end, last, values, count + groups);
+                    if (found != null) {
+                        return found;
+                    }
+                }
+            }
+        }
+
+        if (node.variable != null && end > start) {
+            values[count] = uri.substring(start, end);
+            return descend(node.variable, uri, end, last, values, count + 1);
+        }
+
+        return null;
+    }
+
+    private Node descend(Node child, String uri, int end, boolean last, String[] values, int count) {
+        if (last) {
+            return child.handler != null ? child : null;
+        }
+        return match(child, uri, end + 1, values, count);
+    }
+
+    private static final class Node {
+        private Map<String, Node> literals;
+        private List<Node> patterns;
+        private Node variable;
+
+        // Only set on nodes created for mixed literal/variable segments
+        private String patternSource;
+        private Pattern segmentPattern;
+
+        // Only set on nodes that terminate a route
+        private RouteHandler handler;
+        private String[] variableNames;
+
+        private Node child(String segment, List<String> names) {
+            if (segment.length() > 2 && segment.startsWith("{") && segment.endsWith("}")
+                    && segment.indexOf('{', 1) < 0) {
+                names.add(segment.substring(1, segment.length() - 1));
+                if (variable == null) {
+                    variable = new Node();
+                }
+                return variable;
+            }
+
+            Matcher matcher = SEGMENT_VARIABLE.matcher(segment);
+            if (!matcher.find()) {
+                if (literals == null) {
+                    literals = new HashMap<>();
+                }
+                return literals.computeIfAbsent(segment, s -> new Node());
+            }
+
+            // Mixed segment, e.g. "{name}.txt" - compile a pattern for this segment only
+            StringBuilder regex = new StringBuilder();
+            int last = 0;
+            do {
+                regex.append(Pattern.quote(segment.substring(last, matcher.start())));
+                regex.append("([^/]+)");
+                names.add(matcher.group(1));
+                last = matcher.end();
+            } while (matcher.find());
+            regex.append(Pattern.quote(segment.substring(last)));
+
+            String source = regex.toString();
+            if (patterns == null) {
+                patterns = new ArrayList<>();
+            }
+            for (Node existing : patterns) {
+                if (existing.patternSource.equals(source)) {
+                    return existing;
+                }
+            }
+            Node node = new Node();
+            node.patternSource = source;
+            node.segmentPattern = Pattern.compile(source);
+            patterns.add(node);
+            return node;
+        }
+    }
+}
@@ -7,25 +7,18 @@ import com.iimmersao.springmimic.openapi.ParameterIntrospector;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Component
 public class Router {
-    private static final Pattern PATH_VARIABLE_PATTERN = Pattern.compile("\\{([^/]+)}");
-
     private final List<RouteEntry> routes = new ArrayList<>();
+    // One trie per HTTP method, keyed by upper-case method name
+    private final Map<String, RouteTrie> routesByMethod = new HashMap<>();
     private final RouteHandlerFactory handlerFactory;
 
     public Router(RouteHandlerFactory handlerFactory) {
         this.handlerFactory = handlerFactory;
     }
 
-    private Pattern pathToRegex(String path) {
-        String regex = PATH_VARIABLE_PATTERN.matcher(path).replaceAll("([^/]+)");
-        return Pattern.compile("^" + regex + "$");
-    }
-
     public void registerControllers(Collection<Object> controllers) {
         for (Object controller : controllers) {
             Class<?> clazz = controller.getClass();
@@ -54,10 +47,12 @@ public class Router {
                     }
 
                     if (httpMethod != null && path != null) {
-                        Pattern regexPattern = pathToRegex(path);
-                        //RouteHandler handler = new RouteHandler(httpMethod, path, controller, method, params);
                         RouteHandler handler = handlerFactory.create(httpMethod, path, controller, method, params);
-                        routes.add(new RouteEntry(httpMethod, path, regexPattern, handler));
+                        RouteTrie trie = routesByMethod.computeIfAbsent(httpMethod, m -> new RouteTrie());
+                        // First registration wins for duplicate templates, as with the old linear scan
+                        if (trie.insert(path, handler)) {
+                            routes.add(new RouteEntry(httpMethod, path, handler));
+                        }
                     }
                 }
             }
@@ -65,20 +60,19 @@ public class Router {
     }
 
     public RouteMatch findHandler(String method, String uri) {
-        for (RouteEntry entry : routes) {
-            if (entry.httpMethod().equalsIgnoreCase(method)) {
-                Matcher matcher = entry.pattern().matcher(uri);
-                if (matcher.matches()) {
-                    return new RouteMatch(entry.handler(), matcher);
-                }
+        RouteTrie trie = routesByMethod.get(method);
+        if (trie == null) {
+            trie = routesByMethod.get(method.toUpperCase(Locale.ROOT));
+            if (trie == null) {
+                return null;
             }
         }
-        return null;
+        return trie.find(uri);
     }
 
     public List<RouteEntry> getRoutes() {
         return Collections.unmodifiableList(routes);
     }
 
-    public record RouteEntry(String httpMethod, String path, Pattern pattern, RouteHandler handler) {}
+    public record RouteEntry(String httpMethod, String path, RouteHandler handler) {}
 }
@@ -3,6 +3,12 @@ package com.iimmersao.springmimic.security;
 import com.iimmersao.springmimic.exceptions.UnauthorizedException;
 import fi.iki.elonen.NanoHTTPD;
 
+/**
+ * Establishes who sent a request to an @Authenticated route. The framework provides Basic
+ * credentials ({@link BasicAuthManager}) and signed tokens ({@link TokenAuthManager}),
+ * selected with {@code security.auth.mode}; an application can plug in its own through
+ * {@link SecurityContext#setAuthManager(AuthManager)}.
+ */
 public interface AuthManager {
-    void authenticate(NanoHTTPD.IHTTPSession session) throws UnauthorizedException;
+    UserDetails authenticate(NanoHTTPD.IHTTPSession session) throws UnauthorizedException;
 }
@@ -0,0 +1,56 @@
+package com.iimmersao.springmimic.security;
+
+import com.iimmersao.springmimic.exceptions.UnauthorizedException;
+import fi.iki.elonen.NanoHTTPD;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.Supplier;
+
+/**
+ * Authenticates HTTP Basic credentials with the Authenticator bean, skipping it for headers
+ * the CredentialCache verified recently.
+ */
+public class BasicAuthManager implements AuthManager {
+
+    private final Supplier<Authenticator> authenticator;
+    private final CredentialCache credentials;
+
+    /**
+     * @param authenticator looked up on first use, as the bean may be registered after the routes
+     */
+    public BasicAuthManager(Supplier<Authenticator> authenticator, CredentialCache credentials) {
+        this.authenticator = authenticator;
+        this.credentials = credentials;
+    }
+
+    @Override
+    public UserDetails authenticate(NanoHTTPD.IHTTPSession session) {
+        String authHeader = session.getHeaders().get("authorization");
+        if (authHeader == null || !authHeader.startsWith("Basic ")) {
+            throw new UnauthorizedException("Missing or invalid Authorization header");
+        }
+
+        // Credentials verified recently are not checked again
+        UserDetails user = credentials.get(authHeader);
+        if (user != null) {
+            return user;
+        }
+
+        String base64Credentials = authHeader.substring("Basic ".length()).trim();
+        String decoded = new String(Base64.getDecoder().decode(base64Credentials), StandardCharsets.UTF_8);
+        int colon = decoded.indexOf(':');
+        if (colon < 0) {
+            throw new UnauthorizedException("Invalid Authorization header format");
+        }
+
+        // Throws UnauthorizedException if invalid
+        user = authenticator.get().authenticate(decoded.substring(0, colon), decoded.substring(colon + 1));
+        credentials.put(authHeader, user);
+        return user;
+    }
+
+    public CredentialCache getCredentialCache() {
+        return credentials;
+    }
+}
@@ -0,0 +1,140 @@
+package com.iimmersao.springmimic.security;
+
+import com.iimmersao.springmimic.core.ConfigLoader;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers which Authorization headers were recently verified, so that a client sending
+ * the same credentials again skips the Authenticator (and its password hashing).
+ * <p>
+ * Headers are never stored: entries hold an HMAC-SHA256 of the header under a key that is
+ * generated per process, and a hit is confirmed by comparing the full MAC in constant time.
+ * Entries expire {@code ttlMillis} after they were verified, and the least recently used ones
+ * are dropped beyond {@code maxEntries}. Only successful authentications are cached.
+ */
+public class CredentialCache {
+
+    private record Entry(byte[] mac, UserDetails user, long expiresAt) {
+    }
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final SecretKeySpec key;
+    private final ObjectPool<Mac> macs;
+    // Keyed by the first 8 bytes of the MAC; the rest is checked on lookup
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long hits;
+    private long misses;
+
+    public CredentialCache(long ttlMillis, int maxEntries) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxEntries = maxEntries;
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, "HmacSHA256");
+        this.macs = new ObjectPool<>(ObjectPool.defaultSize(), this::newMac);
+    }
+
+    /**
+     * Reads {@code security.credentialCache.ttlMillis} (0 disables the cache) and
+     * {@code security.credentialCache.maxEntries}.
+     */
+    public static CredentialCache fromConfig(ConfigLoader config) {
+        long ttlMillis = config != null ? config.getLong("security.credentialCache.ttlMillis", 60_000) : 60_000;
+        int maxEntries = config != null ? config.getInt("security.credentialCache.maxEntries", 10_000) : 10_000;
+        return new CredentialCache(ttlMillis, maxEntries);
+    }
+
+    public boolean isEnabled() {
+        return ttlNanos > 0 && maxEntries > 0;
+    }
+
+    /**
+     * Returns the user the header was verified as, or null if it is not cached or has expired.
+     */
+    public UserDetails get(String authorizationHeader) {
+        if (!isEnabled()) {
+            return null;
+        }
+        byte[] mac = mac(authorizationHeader);
+        long now = System.nanoTime();
+        synchronized (this) {
+            Entry entry = entries.get(ByteBuffer.wrap(mac).getLong());
+            if (entry != null && MessageDigest.isEqual(entry.mac(), mac) && now - entry.expiresAt() < 0) {
+                hits++;
+                return entry.user();
+            }
+            misses++;
+            return null;
+        }
+    }
+
+    public void put(String authorizationHeader, UserDetails user) {
+        if (!isEnabled()) {
+            return;
+        }
+        byte[] mac = mac(authorizationHeader);
+        Entry entry = new Entry(mac, user, System.nanoTime() + ttlNanos);
+        synchronized (this) {
+            entries.put(ByteBuffer.wrap(mac).getLong(), entry);
+            if (entries.size() > maxEntries) {
+                Iterator<Entry> eldest = entries.values().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops the cached verifications of a user, e.g. after their password or roles changed.
+     */
+    public synchronized void invalidate(String username) {
+        entries.values().removeIf(entry -> entry.user().getUsername().equals(username));
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    private byte[] mac(String authorizationHeader) {
+        Mac mac = macs.acquire();
+        try {
+            return mac.doFinal(authorizationHeader.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            macs.release(mac);
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
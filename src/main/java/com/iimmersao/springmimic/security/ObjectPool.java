@@ -0,0 +1,56 @@
+package com.iimmersao.springmimic.security;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A bounded pool of objects that are costly to create and cannot be shared between threads,
+ * such as initialized Mac instances. Unlike a ThreadLocal it also saves the creation with
+ * {@code server.executor=virtual}, where every connection runs on a new thread. Objects are
+ * created when the pool is empty, and dropped when it already holds {@code maxPooled}.
+ */
+final class ObjectPool<T> {
+
+    private final ConcurrentLinkedQueue<T> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger freeCount = new AtomicInteger();
+    private final int maxPooled;
+    private final Supplier<T> factory;
+
+    ObjectPool(int maxPooled, Supplier<T> factory) {
+        this.maxPooled = maxPooled;
+        this.factory = factory;
+    }
+
+    /**
+     * Enough for every core to be using one at once, which is as many as short CPU-bound uses
+     * can keep busy.
+     */
+    static int defaultSize() {
+        return Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+    T acquire() {
+        T object = free.poll();
+        if (object == null) {
+            return factory.get();
+        }
+        freeCount.decrementAndGet();
+        return object;
+    }
+
+    /**
+     * Returns an object to the pool; it must be back in the state the factory created it in.
+     */
+    void release(T object) {
+        if (freeCount.incrementAndGet() > maxPooled) {
+            freeCount.decrementAndGet();
+            return;
+        }
+        free.offer(object);
+    }
+
+    int getPooledCount() {
+        return freeCount.get();
+    }
+}
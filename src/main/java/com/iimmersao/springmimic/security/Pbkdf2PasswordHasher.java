@@ -0,0 +1,150 @@
+package com.iimmersao.springmimic.security;
+
+import com.iimmersao.springmimic.core.ConfigLoader;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hashes and verifies passwords with PBKDF2-HMAC-SHA256.
+ * <p>
+ * Hashes are stored as {@code pbkdf2-sha256$<iterations>$<salt>$<hash>} (Base64 salt and
+ * hash), so each is verified with the iteration count it was created with: raising
+ * {@code security.password.iterations} applies to new hashes without invalidating old ones,
+ * and {@link #needsRehash(String)} tells which ones to update on the next login. The time
+ * spent hashing is recorded, to keep the iteration count within the login latency budget.
+ */
+public class Pbkdf2PasswordHasher {
+
+    private static final String PREFIX = "pbkdf2-sha256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+
+    private final AtomicLong hashCount = new AtomicLong();
+    private final AtomicLong hashNanos = new AtomicLong();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+
+    public Pbkdf2PasswordHasher(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("PBKDF2 iterations must be positive: " + iterations);
+        }
+        this.iterations = iterations;
+    }
+
+    /**
+     * Reads {@code security.password.iterations}.
+     */
+    public static Pbkdf2PasswordHasher fromConfig(ConfigLoader config) {
+        return new Pbkdf2PasswordHasher(config != null ? config.getInt("security.password.iterations", 310_000) : 310_000);
+    }
+
+    /**
+     * Finds the iteration count whose hash takes about {@code targetMillis} on this machine.
+     */
+    public static int calibrate(long targetMillis) {
+        Pbkdf2PasswordHasher probe = new Pbkdf2PasswordHasher(10_000);
+        byte[] salt = new byte[SALT_BYTES];
+        char[] password = "calibration".toCharArray();
+        long best = Long.MAX_VALUE;
+        // The first rounds include JIT warm-up
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            probe.derive(password, salt, probe.iterations);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double perIteration = (double) best / probe.iterations;
+        return (int) Math.max(1, TimeUnit.MILLISECONDS.toNanos(targetMillis) / perIteration);
+    }
+
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] hash = derive(password.toCharArray(), salt, iterations);
+        return PREFIX + "$" + iterations + "$" + Base64.getEncoder().encodeToString(salt)
+                + "$" + Base64.getEncoder().encodeToString(hash);
+    }
+
+    /**
+     * Checks a password against a stored hash in constant time; malformed hashes never match.
+     */
+    public boolean matches(String password, String storedHash) {
+        String[] parts = storedHash != null ? storedHash.split("\\$") : new String[0];
+        if (parts.length != 4 || !parts[0].equals(PREFIX)) {
+            return false;
+        }
+        try {
+            int storedIterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            return MessageDigest.isEqual(expected, derive(password.toCharArray(), salt, storedIterations));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Whether a stored hash was made with fewer iterations than currently configured.
+     */
+    public boolean needsRehash(String storedHash) {
+        String[] parts = storedHash.split("\\$");
+        try {
+            return parts.length != 4 || !parts[0].equals(PREFIX) || Integer.parseInt(parts[1]) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Spends as long as verifying a real hash, so that unknown usernames cannot be told
+     * apart from wrong passwords by response time.
+     */
+    void simulateVerification() {
+        derive(new char[] {'x'}, new byte[SALT_BYTES], iterations);
+    }
+
+    private byte[] derive(char[] password, byte[] salt, int rounds) {
+        long start = System.nanoTime();
+        PBEKeySpec spec = new PBEKeySpec(password, salt, rounds, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2WithHmacSHA256 is not available", e);
+        } finally {
+            spec.clearPassword();
+            long elapsed = System.nanoTime() - start;
+            hashCount.incrementAndGet();
+            hashNanos.addAndGet(elapsed);
+            maxHashNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public long getHashCount() {
+        return hashCount.get();
+    }
+
+    public long getTotalHashNanos() {
+        return hashNanos.get();
+    }
+
+    public long getMaxHashNanos() {
+        return maxHashNanos.get();
+    }
+
+    public double getAverageHashMillis() {
+        long count = hashCount.get();
+        return count > 0 ? hashNanos.get() / (count * 1_000_000.0) : 0;
+    }
+}
@@ -0,0 +1,120 @@
+package com.iimmersao.springmimic.security;
+
+import com.iimmersao.springmimic.core.ConfigLoader;
+import com.iimmersao.springmimic.exceptions.UnauthorizedException;
+import com.iimmersao.springmimic.repository.CrudRepository;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Authenticates users stored in the database, verifying PBKDF2 password hashes.
+ * <p>
+ * Loaded users are kept for {@code security.userCache.ttlMillis} (a few seconds by default),
+ * so that a burst of logins for the same user loads it once; at most
+ * {@code security.userCache.maxEntries} are kept. To use it, register it as the
+ * Authenticator bean with a repository whose entities implement {@link UserAccount}:
+ * <pre>
+ * context.registerBean(Authenticator.class, new RepositoryAuthenticator(userRepository, config));
+ * </pre>
+ */
+public class RepositoryAuthenticator implements Authenticator {
+
+    private record CachedUser(String passwordHash, Set<String> roles, long expiresAt) {
+    }
+
+    private final Function<String, Optional<? extends UserAccount>> loader;
+    private final Pbkdf2PasswordHasher hasher;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<String, CachedUser> users = new LinkedHashMap<>(64, 0.75f, true);
+    private long hits;
+    private long misses;
+
+    /**
+     * Uses a repository whose id is the username.
+     */
+    public RepositoryAuthenticator(CrudRepository<? extends UserAccount, String> repository, ConfigLoader config) {
+        this(repository::findById, Pbkdf2PasswordHasher.fromConfig(config),
+                config != null ? config.getLong("security.userCache.ttlMillis", 5000) : 5000,
+                config != null ? config.getInt("security.userCache.maxEntries", 1000) : 1000);
+    }
+
+    /**
+     * @param loader finds a user by username, e.g. a repository's {@code findByUsername}
+     */
+    public RepositoryAuthenticator(Function<String, Optional<? extends UserAccount>> loader,
+                                   Pbkdf2PasswordHasher hasher, long ttlMillis, int maxEntries) {
+        this.loader = loader;
+        this.hasher = hasher;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public UserDetails authenticate(String username, String password) {
+        CachedUser user = load(username);
+        if (user == null) {
+            hasher.simulateVerification();
+            throw new UnauthorizedException("Invalid username or password");
+        }
+        if (!hasher.matches(password, user.passwordHash())) {
+            throw new UnauthorizedException("Invalid username or password");
+        }
+        return new UserDetails(username, user.roles());
+    }
+
+    private CachedUser load(String username) {
+        long now = System.nanoTime();
+        synchronized (this) {
+            CachedUser cached = users.get(username);
+            if (cached != null && now - cached.expiresAt() < 0) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+
+        Optional<? extends UserAccount> account = loader.apply(username);
+        if (account.isEmpty()) {
+            return null;
+        }
+        CachedUser loaded = new CachedUser(account.get().getPasswordHash(), Set.copyOf(account.get().getRoles()),
+                now + ttlNanos);
+        if (ttlNanos > 0) {
+            synchronized (this) {
+                users.put(username, loaded);
+                if (users.size() > maxEntries) {
+                    Iterator<CachedUser> eldest = users.values().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops a cached user, e.g. after their password or roles changed.
+     */
+    public synchronized void invalidate(String username) {
+        users.remove(username);
+    }
+
+    public Pbkdf2PasswordHasher getPasswordHasher() {
+        return hasher;
+    }
+
+    public synchronized long getCacheHits() {
+        return hits;
+    }
+
+    public synchronized long getCacheMisses() {
+        return misses;
+    }
+}
@@ -1,7 +1,11 @@
 package com.iimmersao.springmimic.security;
 
+/**
+ * Holds an application-supplied AuthManager, which @Authenticated routes use instead of the
+ * one configured with {@code security.auth.mode}.
+ */
 public class SecurityContext {
-    private static AuthManager authManager;
+    private static volatile AuthManager authManager;
 
     public static void setAuthManager(AuthManager manager) {
         authManager = manager;
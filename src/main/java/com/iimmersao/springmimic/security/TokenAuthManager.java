@@ -0,0 +1,26 @@
+package com.iimmersao.springmimic.security;
+
+import com.iimmersao.springmimic.exceptions.UnauthorizedException;
+import fi.iki.elonen.NanoHTTPD;
+
+/**
+ * Authenticates {@code Authorization: Bearer} tokens issued by a TokenService. The user and
+ * roles come from the token itself, so no user lookup or password check happens per request.
+ */
+public class TokenAuthManager implements AuthManager {
+
+    private final TokenService tokens;
+
+    public TokenAuthManager(TokenService tokens) {
+        this.tokens = tokens;
+    }
+
+    @Override
+    public UserDetails authenticate(NanoHTTPD.IHTTPSession session) {
+        String authHeader = session.getHeaders().get("authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new UnauthorizedException("Missing or invalid Authorization header");
+        }
+        return tokens.verify(authHeader.substring("Bearer ".length()).trim());
+    }
+}
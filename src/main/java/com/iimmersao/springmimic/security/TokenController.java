@@ -0,0 +1,41 @@
+package com.iimmersao.springmimic.security;
+
+import com.iimmersao.springmimic.annotations.PostMapping;
+import com.iimmersao.springmimic.annotations.RequestBody;
+import com.iimmersao.springmimic.annotations.ResponseBody;
+
+import java.util.function.Supplier;
+
+/**
+ * The login endpoint for token authentication: exchanges a username and password, checked
+ * once by the Authenticator, for a signed token to send as {@code Authorization: Bearer}.
+ * Registered by the framework when {@code security.auth.mode} includes tokens.
+ */
+@SuppressWarnings(value = "unused")
+public class TokenController {
+
+    public record LoginRequest(String username, String password) {
+    }
+
+    public record TokenResponse(String token, String tokenType, long expiresIn) {
+    }
+
+    private final TokenService tokens;
+    private final Supplier<Authenticator> authenticator;
+
+    public TokenController(TokenService tokens, Supplier<Authenticator> authenticator) {
+        this.tokens = tokens;
+        this.authenticator = authenticator;
+    }
+
+    @PostMapping("/auth/token")
+    @ResponseBody
+    public TokenResponse login(@RequestBody LoginRequest request) {
+        if (request.username() == null || request.password() == null) {
+            throw new IllegalArgumentException("username and password are required");
+        }
+        // Throws UnauthorizedException if invalid
+        UserDetails user = authenticator.get().authenticate(request.username(), request.password());
+        return new TokenResponse(tokens.issue(user), "Bearer", tokens.getTtlSeconds());
+    }
+}
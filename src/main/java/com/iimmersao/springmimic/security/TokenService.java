@@ -0,0 +1,170 @@
+package com.iimmersao.springmimic.security;
+
+import com.iimmersao.springmimic.core.ConfigLoader;
+import com.iimmersao.springmimic.exceptions.UnauthorizedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Issues and verifies stateless bearer tokens carrying a username, roles and an expiry time.
+ * <p>
+ * A token is {@code base64url(payload) "." base64url(HMAC-SHA256(base64url(payload)))}, where
+ * the payload is the expiry in epoch seconds, the comma-separated roles and the username,
+ * separated by newlines. The key is decoded once, from {@code security.token.secret}; the
+ * signature is checked in constant time, on pooled buffers, before the payload is decoded.
+ */
+public class TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+
+    private static final int MAC_LENGTH = 32;
+    // Unpadded base64url of a 32-byte MAC
+    private static final int SIGNATURE_CHARS = 43;
+    private static final int MAX_TOKEN_CHARS = 4096;
+
+    // Mac instances are not thread-safe, so each verification borrows one along with its buffers
+    private final class Verifier {
+        final Mac mac = newMac();
+        final byte[] payload = new byte[MAX_TOKEN_CHARS];
+        final byte[] signatureChars = new byte[SIGNATURE_CHARS];
+        final byte[] signature = new byte[MAC_LENGTH];
+        final byte[] expected = new byte[MAC_LENGTH];
+    }
+
+    private final SecretKeySpec key;
+    private final long ttlSeconds;
+    private final ObjectPool<Verifier> verifiers = new ObjectPool<>(ObjectPool.defaultSize(), Verifier::new);
+
+    public TokenService(byte[] secret, long ttlSeconds) {
+        if (secret.length < MAC_LENGTH) {
+            throw new IllegalArgumentException("Token secret must be at least " + MAC_LENGTH + " bytes");
+        }
+        this.key = new SecretKeySpec(secret, "HmacSHA256");
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    /**
+     * Reads {@code security.token.secret} (Base64, at least 32 bytes) and
+     * {@code security.token.ttlSeconds}. Without a secret a random one is used, so tokens
+     * stop working when the application restarts and are not accepted by other instances.
+     */
+    public static TokenService fromConfig(ConfigLoader config) {
+        String secret = config != null ? config.get("security.token.secret") : null;
+        long ttlSeconds = config != null ? config.getLong("security.token.ttlSeconds", 3600) : 3600;
+        byte[] key;
+        if (secret == null || secret.isBlank()) {
+            log.warn("No security.token.secret configured; tokens are signed with a random key for this run only");
+            key = new byte[MAC_LENGTH];
+            new SecureRandom().nextBytes(key);
+        } else {
+            key = Base64.getDecoder().decode(secret.trim());
+        }
+        return new TokenService(key, ttlSeconds);
+    }
+
+    public String issue(UserDetails user) {
+        long expiresAt = System.currentTimeMillis() / 1000 + ttlSeconds;
+        String username = user.getUsername();
+        for (String role : user.getRoles()) {
+            if (role.indexOf(',') >= 0 || role.indexOf('\n') >= 0) {
+                throw new IllegalArgumentException("Role cannot be put in a token: " + role);
+            }
+        }
+        String payload = expiresAt + "\n" + String.join(",", user.getRoles()) + "\n" + username;
+        String encoded = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        byte[] signature;
+        Verifier verifier = verifiers.acquire();
+        try {
+            signature = verifier.mac.doFinal(encoded.getBytes(StandardCharsets.US_ASCII));
+        } finally {
+            verifiers.release(verifier);
+        }
+        return encoded + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+
+    /**
+     * Returns the user a token was issued to.
+     *
+     * @throws UnauthorizedException if the token is malformed, not signed with this key or expired
+     */
+    public UserDetails verify(String token) {
+        int dot = token.length() - SIGNATURE_CHARS - 1;
+        if (dot <= 0 || token.length() > MAX_TOKEN_CHARS || token.charAt(dot) != '.') {
+            throw new UnauthorizedException("Malformed token");
+        }
+
+        Verifier verifier = verifiers.acquire();
+        try {
+            for (int i = 0; i < dot; i++) {
+                verifier.payload[i] = (byte) token.charAt(i);
+            }
+            for (int i = 0; i < SIGNATURE_CHARS; i++) {
+                verifier.signatureChars[i] = (byte) token.charAt(dot + 1 + i);
+            }
+            try {
+                Base64.getUrlDecoder().decode(verifier.signatureChars, verifier.signature);
+                verifier.mac.update(verifier.payload, 0, dot);
+                verifier.mac.doFinal(verifier.expected, 0);
+            } catch (IllegalArgumentException | ShortBufferException e) {
+                verifier.mac.reset();
+                throw new UnauthorizedException("Malformed token");
+            }
+            if (!MessageDigest.isEqual(verifier.expected, verifier.signature)) {
+                throw new UnauthorizedException("Invalid token signature");
+            }
+        } finally {
+            verifiers.release(verifier);
+        }
+
+        String payload;
+        try {
+            payload = new String(Base64.getUrlDecoder().decode(token.substring(0, dot)), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new UnauthorizedException("Malformed token");
+        }
+        int first = payload.indexOf('\n');
+        int second = payload.indexOf('\n', first + 1);
+        if (first < 0 || second < 0) {
+            throw new UnauthorizedException("Malformed token");
+        }
+        long expiresAt = Long.parseLong(payload, 0, first, 10);
+        if (System.currentTimeMillis() / 1000 >= expiresAt) {
+            throw new UnauthorizedException("Token expired");
+        }
+        Set<String> roles = new LinkedHashSet<>();
+        int start = first + 1;
+        while (start < second) {
+            int comma = payload.indexOf(',', start);
+            int end = comma >= 0 && comma < second ? comma : second;
+            roles.add(payload.substring(start, end));
+            start = end + 1;
+        }
+        return new UserDetails(payload.substring(second + 1), roles);
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
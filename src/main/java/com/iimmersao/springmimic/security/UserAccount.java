@@ -0,0 +1,15 @@
+package com.iimmersao.springmimic.security;
+
+import java.util.Set;
+
+/**
+ * A stored user, as loaded by {@link RepositoryAuthenticator}. Entities implement this to be
+ * used for authentication; the password hash is in the {@link Pbkdf2PasswordHasher} format.
+ */
+public interface UserAccount {
+    String getUsername();
+
+    String getPasswordHash();
+
+    Set<String> getRoles();
+}
@@ -0,0 +1,164 @@
+package com.iimmersao.springmimic.server;
+
+import com.iimmersao.springmimic.core.ConfigLoader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the number of requests WebServer works on at once. A request that finds no free
+ * slot waits in a bounded queue for at most the queue timeout; when the queue is full or
+ * the wait expires it is rejected straight away, so overload turns into fast 503s instead
+ * of rising latency for everyone.
+ * <p>
+ * Requests are classified by path prefix: critical paths (health checks, admin) bypass
+ * admission entirely, low-priority paths are shed as soon as no slot is free, and
+ * everything else is normal.
+ */
+public class AdmissionController {
+
+    public enum Priority { CRITICAL, NORMAL, LOW }
+
+    public enum Admission { BYPASSED, ADMITTED, REJECTED }
+
+    private final int maxInFlight;
+    private final int queueSize;
+    private final long queueTimeoutMillis;
+    private final int retryAfterSeconds;
+    private final List<String> criticalPaths;
+    private final List<String> lowPriorityPaths;
+
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public AdmissionController(int maxInFlight, int queueSize, long queueTimeoutMillis, int retryAfterSeconds,
+                               List<String> criticalPaths, List<String> lowPriorityPaths) {
+        this.maxInFlight = maxInFlight;
+        this.queueSize = queueSize;
+        this.queueTimeoutMillis = queueTimeoutMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.criticalPaths = criticalPaths;
+        this.lowPriorityPaths = lowPriorityPaths;
+        this.permits = maxInFlight > 0 ? new Semaphore(maxInFlight) : null;
+    }
+
+    /**
+     * Builds a controller from the server.admission.* settings. Admission control is
+     * disabled unless server.admission.maxInFlight is positive.
+     */
+    public static AdmissionController fromConfig(ConfigLoader config) {
+        if (config == null) {
+            return new AdmissionController(0, 0, 0, 1, List.of(), List.of());
+        }
+        return new AdmissionController(
+                config.getInt("server.admission.maxInFlight", 0),
+                config.getInt("server.admission.queueSize", 0),
+                config.getInt("server.admission.queueTimeoutMillis", 100),
+                config.getInt("server.admission.retryAfterSeconds", 1),
+                parsePaths(config.get("server.admission.criticalPaths", "/health")),
+                parsePaths(config.get("server.admission.lowPriorityPaths", "")));
+    }
+
+    public Admission admit(String uri) {
+        if (permits == null) {
+            return Admission.BYPASSED;
+        }
+
+        Priority priority = classify(uri);
+        if (priority == Priority.CRITICAL) {
+            return Admission.BYPASSED;
+        }
+
+        if (permits.tryAcquire()) {
+            admitted.incrementAndGet();
+            return Admission.ADMITTED;
+        }
+
+        if (priority == Priority.LOW || waiting.incrementAndGet() > queueSize) {
+            if (priority != Priority.LOW) {
+                waiting.decrementAndGet();
+            }
+            rejected.incrementAndGet();
+            return Admission.REJECTED;
+        }
+
+        try {
+            if (permits.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                admitted.incrementAndGet();
+                return Admission.ADMITTED;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            waiting.decrementAndGet();
+        }
+        rejected.incrementAndGet();
+        return Admission.REJECTED;
+    }
+
+    public void release(Admission admission) {
+        if (admission == Admission.ADMITTED) {
+            permits.release();
+        }
+    }
+
+    public Priority classify(String uri) {
+        if (matchesAny(uri, criticalPaths)) {
+            return Priority.CRITICAL;
+        }
+        if (matchesAny(uri, lowPriorityPaths)) {
+            return Priority.LOW;
+        }
+        return Priority.NORMAL;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getInFlight() {
+        return permits != null ? maxInFlight - permits.availablePermits() : 0;
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    public long getAdmittedCount() {
+        return admitted.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    private static boolean matchesAny(String uri, List<String> prefixes) {
+        for (String prefix : prefixes) {
+            if (uri.equals(prefix) || (uri.startsWith(prefix)
+                    && (prefix.endsWith("/") || uri.charAt(prefix.length()) == '/'))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> parsePaths(String value) {
+        List<String> paths = new ArrayList<>();
+        for (String path : value.split(",")) {
+            if (!path.isBlank()) {
+                paths.add(path.trim());
+            }
+        }
+        return paths;
+    }
+}
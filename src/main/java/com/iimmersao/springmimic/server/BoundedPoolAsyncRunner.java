@@ -0,0 +1,66 @@
+package com.iimmersao.springmimic.server;
+
+import fi.iki.elonen.NanoHTTPD;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs connections on a fixed pool of platform threads. Since a connection holds its
+ * thread for as long as it stays open, the pool size caps concurrent connections; up to
+ * {@code queueSize} more wait for a free thread and anything beyond that is closed.
+ */
+public class BoundedPoolAsyncRunner extends TrackingAsyncRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BoundedPoolAsyncRunner.class);
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger rejected = new AtomicInteger();
+
+    public BoundedPoolAsyncRunner(int maxThreads, int queueSize) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueSize, 1)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "http-pool-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    protected boolean submit(NanoHTTPD.ClientHandler handler) {
+        try {
+            executor.execute(handler);
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            log.warn("Connection rejected: all {} pool threads busy and queue full", executor.getMaximumPoolSize());
+            return false;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String getName() {
+        return "platform-pool";
+    }
+
+    public int getRejectedConnections() {
+        return rejected.get();
+    }
+
+    public int getQueuedConnections() {
+        return executor.getQueue().size();
+    }
+}
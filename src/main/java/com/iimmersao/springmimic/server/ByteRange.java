@@ -0,0 +1,61 @@
+package com.iimmersao.springmimic.server;
+
+/**
+ * A single satisfiable byte range from a {@code Range: bytes=...} header, with inclusive bounds.
+ */
+public record ByteRange(long start, long end) {
+
+    /**
+     * Returned when the header names a byte range but none of it lies within the file.
+     */
+    public static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+    public long length() {
+        return end - start + 1;
+    }
+
+    public String contentRange(long totalLength) {
+        return "bytes " + start + "-" + end + "/" + totalLength;
+    }
+
+    /**
+     * Parses a Range header against a representation of the given length. Returns null when the
+     * header is absent, malformed, or asks for several ranges, in which case the whole file is
+     * served, as RFC 9110 allows.
+     */
+    public static ByteRange parse(String header, long totalLength) {
+        if (header == null || !header.startsWith("bytes=")) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        if (spec.contains(",")) {
+            return null;
+        }
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range: the final N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || totalLength == 0) {
+                    return UNSATISFIABLE;
+                }
+                return new ByteRange(Math.max(0, totalLength - suffix), totalLength - 1);
+            }
+
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? totalLength - 1 : Math.min(Long.parseLong(last), totalLength - 1);
+            if (start < 0 || (!last.isEmpty() && Long.parseLong(last) < start)) {
+                return null;
+            }
+            return start >= totalLength ? UNSATISFIABLE : new ByteRange(start, end);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
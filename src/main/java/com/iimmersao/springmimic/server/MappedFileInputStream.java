@@ -0,0 +1,96 @@
+package com.iimmersao.springmimic.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a byte range of a file through memory-mapped windows, so the bytes are copied from
+ * the page cache into the caller's buffer without read() system calls. That buffer is still
+ * a heap copy: NanoHTTPD reads each chunk into its 16 KB send buffer before writing it out.
+ * The channel is closed when the stream is.
+ * <p>
+ * The range must still be in the file, as the Content-Length sent for it promises that many
+ * bytes: the constructor throws IOException for a file shorter than the range, and a read
+ * from a file truncated since throws UncheckedIOException, which makes NanoHTTPD drop the
+ * connection rather than leave the client waiting for the rest of the body (or fault on
+ * the mapping of the missing pages).
+ */
+public class MappedFileInputStream extends InputStream {
+
+    // Map at most this much at a time so huge files don't need one huge mapping
+    static final long WINDOW_SIZE = 16L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long end;
+    private long position;
+    private MappedByteBuffer window;
+
+    public MappedFileInputStream(Path file, long offset, long length) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.position = offset;
+        this.end = offset + length;
+        if (channel.size() < end) {
+            channel.close();
+            throw new IOException("File is shorter than the requested range: " + file);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= end) {
+            return -1;
+        }
+        try {
+            if (window == null || !window.hasRemaining()) {
+                long size = Math.min(WINDOW_SIZE, end - position);
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            }
+            int count = Math.min(len, window.remaining());
+            // Touching mapped pages past the end of the file faults rather than reading
+            if (channel.size() < position + count) {
+                throw new IOException("File was truncated while being read");
+            }
+            window.get(buffer, off, count);
+            position += count;
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InternalError e) {
+            // Truncated between the size check and the copy
+            throw new UncheckedIOException(new IOException("File was truncated while being read", e));
+        }
+    }
+
+    @Override
+    public long skip(long n) {
+        long skipped = Math.max(0, Math.min(n, end - position));
+        position += skipped;
+        window = null;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return window != null ? window.remaining() : 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
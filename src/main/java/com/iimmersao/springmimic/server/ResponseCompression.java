@@ -0,0 +1,261 @@
+package com.iimmersao.springmimic.server;
+
+import com.iimmersao.springmimic.core.ConfigLoader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Decides which responses are gzipped and does the compressing, keeping totals so the
+ * threshold and allowlist can be tuned. A body is compressed when the client accepts gzip,
+ * its content type starts with one of the allowed prefixes and it is at least
+ * {@code minBytes} long (bodies of unknown length are always eligible).
+ * <p>
+ * Static files are compressed once, when they enter the cache; dynamic bodies are
+ * compressed as they are sent through {@link GzipInputStream}.
+ */
+public class ResponseCompression {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final boolean enabled;
+    private final long minBytes;
+    private final int level;
+    private final List<String> mimeTypes;
+
+    private final LongAdder compressedResponses = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder compressionNanos = new LongAdder();
+
+    public ResponseCompression(boolean enabled, long minBytes, int level, List<String> mimeTypes) {
+        this.enabled = enabled;
+        this.minBytes = minBytes;
+        this.level = level;
+        this.mimeTypes = mimeTypes;
+    }
+
+    /**
+     * Builds the policy from the server.compression.* settings.
+     */
+    public static ResponseCompression fromConfig(ConfigLoader config) {
+        String defaultTypes = "text/,application/json,application/javascript,application/xml,image/svg+xml";
+        if (config == null) {
+            return new ResponseCompression(true, 1024, 6, parseTypes(defaultTypes));
+        }
+        return new ResponseCompression(
+                config.getBoolean("server.compression.enabled", true),
+                config.getLong("server.compression.minBytes", 1024),
+                config.getInt("server.compression.level", 6),
+                parseTypes(config.get("server.compression.mimeTypes", defaultTypes)));
+    }
+
+    private static List<String> parseTypes(String value) {
+        List<String> types = new ArrayList<>();
+        for (String type : value.split(",")) {
+            if (!type.isBlank()) {
+                types.add(type.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return types;
+    }
+
+    /**
+     * True if the Accept-Encoding header allows gzip (and does not give it q=0).
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equals("gzip") || name.equals("*")) {
+                for (int i = 1; i < parts.length; i++) {
+                    String param = parts[i].trim().replace(" ", "");
+                    if (param.matches("q=0(\\.0*)?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param length body length in bytes, or -1 if not known up front
+     */
+    public boolean isCompressible(String mimeType, long length) {
+        if (!enabled || mimeType == null || (length >= 0 && length < minBytes)) {
+            return false;
+        }
+        String type = mimeType.toLowerCase(Locale.ROOT);
+        // Gzip would hold each event back until a compressed chunk fills
+        if (type.startsWith("text/event-stream")) {
+            return false;
+        }
+        for (String allowed : mimeTypes) {
+            if (type.startsWith(allowed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compresses a whole body at once. Returns null when gzip would not make it smaller.
+     */
+    public byte[] compress(byte[] content) {
+        long start = System.nanoTime();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(content.length / 2 + 64);
+        try (GZIPOutputStream gzip = newGzipStream(buffer)) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        record(content.length, buffer.size(), System.nanoTime() - start);
+        return buffer.size() < content.length ? buffer.toByteArray() : null;
+    }
+
+    /**
+     * Wraps a body so that it is compressed chunk by chunk as it is read.
+     */
+    public InputStream compressing(InputStream source) {
+        return new GzipInputStream(source);
+    }
+
+    private GZIPOutputStream newGzipStream(ByteArrayOutputStream target) throws IOException {
+        return new GZIPOutputStream(target, CHUNK_SIZE) {
+            {
+                def.setLevel(level);
+            }
+        };
+    }
+
+    private void record(long in, long out, long nanos) {
+        compressedResponses.increment();
+        bytesIn.add(in);
+        bytesOut.add(out);
+        compressionNanos.add(nanos);
+    }
+
+    public long getCompressedResponses() {
+        return compressedResponses.sum();
+    }
+
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    /**
+     * Time spent inside the deflater, which is CPU-bound, summed over all responses.
+     */
+    public long getCompressionNanos() {
+        return compressionNanos.sum();
+    }
+
+    /**
+     * Compressed size as a fraction of the original, over everything compressed so far.
+     */
+    public double getCompressionRatio() {
+        long in = bytesIn.sum();
+        return in == 0 ? 1.0 : (double) bytesOut.sum() / in;
+    }
+
+    /**
+     * Pulls from the source a chunk at a time and hands out the gzip output, so the body is
+     * never held in memory as a whole.
+     */
+    class GzipInputStream extends InputStream {
+
+        private final InputStream source;
+        private final byte[] chunk = new byte[CHUNK_SIZE];
+        private final ExposedBuffer pending = new ExposedBuffer();
+        private final GZIPOutputStream gzip;
+        private int readPosition;
+        private boolean finished;
+        private long in;
+        private long out;
+        private long nanos;
+
+        GzipInputStream(InputStream source) {
+            this.source = source;
+            try {
+                this.gzip = newGzipStream(pending);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            // The gzip header is already pending
+            this.out = pending.size();
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            while (readPosition == pending.size()) {
+                if (finished) {
+                    return -1;
+                }
+                fill();
+            }
+            int count = Math.min(len, pending.size() - readPosition);
+            System.arraycopy(pending.bytes(), readPosition, buffer, off, count);
+            readPosition += count;
+            return count;
+        }
+
+        // Only called once everything pending has been handed out
+        private void fill() throws IOException {
+            pending.reset();
+            readPosition = 0;
+            int read = source.read(chunk);
+            long start = System.nanoTime();
+            if (read == -1) {
+                // Writes the trailer and frees the Deflater's native memory
+                gzip.close();
+                finished = true;
+            } else {
+                gzip.write(chunk, 0, read);
+                in += read;
+            }
+            nanos += System.nanoTime() - start;
+            out += pending.size();
+            if (finished) {
+                record(in, out, nanos);
+            }
+        }
+
+        // Also called for a body abandoned part way, whose Deflater would otherwise wait for the Cleaner
+        @Override
+        public void close() throws IOException {
+            try {
+                source.close();
+            } finally {
+                gzip.close();
+            }
+        }
+    }
+
+    private static class ExposedBuffer extends ByteArrayOutputStream {
+        byte[] bytes() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.iimmersao.springmimic.server;
+
+import fi.iki.elonen.NanoHTTPD;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Serves lookups for files under the static directory from memory where possible.
+ * <p>
+ * Files up to {@code maxFileBytes} are read once and kept, keyed by the normalized path the
+ * request URI names, in an LRU map bounded to {@code maxBytes} in total, together with a strong
+ * ETag (SHA-256 of the content) and the modification time. Larger files are described but not
+ * buffered; the server streams them from a memory-mapped channel instead.
+ * <p>
+ * A WatchService on the directory tree drops entries whose file changes, so a hit never
+ * touches the filesystem. A file read while its entry is being invalidated is served but not
+ * kept, as it may be the old content.
+ */
+public class StaticResourceCache implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(StaticResourceCache.class);
+
+    /**
+     * A static file ready to be served. {@code content} is null for files too large to cache;
+     * {@code gzipContent} is null unless the file is cached, compressible and shrinks under gzip.
+     */
+    public record Resource(Path file, String mimeType, long length, long lastModified,
+                           String etag, byte[] content, byte[] gzipContent) {
+
+        /**
+         * The ETag of the gzip variant, which must differ from the identity one.
+         */
+        public String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gz\"";
+        }
+
+        long cachedBytes() {
+            return content.length + (gzipContent != null ? gzipContent.length : 0);
+        }
+    }
+
+    private record Invalidation(long generation, Path path) {
+    }
+
+    private static final int MAX_LOGGED_INVALIDATIONS = 64;
+
+    private final Path root;
+    private final long maxBytes;
+    private final long maxFileBytes;
+    private final ResponseCompression compression;
+    private final Map<Path, Resource> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedBytes;
+    // Counts invalidations; the most recent are logged so a file read before one is not stored after it
+    private long generation;
+    private final ArrayDeque<Invalidation> recentInvalidations = new ArrayDeque<>();
+    private long hits;
+    private long misses;
+
+    private final WatchService watchService;
+    private final Thread watcher;
+
+    public StaticResourceCache(Path root, long maxBytes, long maxFileBytes) throws IOException {
+        this(root, maxBytes, maxFileBytes, null);
+    }
+
+    /**
+     * @param compression when not null, compressible files are also gzipped once as they are cached
+     */
+    public StaticResourceCache(Path root, long maxBytes, long maxFileBytes, ResponseCompression compression)
+            throws IOException {
+        this.root = root.toRealPath();
+        this.maxBytes = maxBytes;
+        this.maxFileBytes = maxFileBytes;
+        this.compression = compression;
+        this.watchService = root.getFileSystem().newWatchService();
+        registerTree(this.root);
+        this.watcher = new Thread(this::watch, "static-cache-watcher");
+        this.watcher.setDaemon(true);
+        this.watcher.start();
+    }
+
+    /**
+     * Returns the resource for a request URI, or null if it does not name a readable file
+     * inside the static directory.
+     */
+    public Resource lookup(String uri) throws IOException {
+        // Resolved lexically, so that "/a/../x.css" and "/x.css" share an entry without a filesystem call
+        Path requested = root.resolve(URLDecoder.decode(uri, StandardCharsets.UTF_8).replaceFirst("^/+", ""))
+                .normalize();
+        // Prevent path traversal attack
+        if (!requested.startsWith(root)) {
+            return null;
+        }
+
+        long readGeneration;
+        synchronized (this) {
+            Resource cached = entries.get(requested);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+            readGeneration = generation;
+        }
+
+        Path file = resolve(requested);
+        if (file == null) {
+            return null;
+        }
+
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long length = attributes.size();
+        // HTTP dates have one-second resolution
+        long lastModified = attributes.lastModifiedTime().toMillis() / 1000 * 1000;
+        String mimeType = NanoHTTPD.getMimeTypeForFile(file.getFileName().toString());
+
+        if (length > maxFileBytes || length > maxBytes) {
+            // Hashing would mean reading the whole file, so use size and mtime, as nginx does
+            String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+            return new Resource(file, mimeType, length, lastModified, etag, null, null);
+        }
+
+        byte[] content = Files.readAllBytes(file);
+        byte[] gzipContent = compression != null && compression.isCompressible(mimeType, content.length)
+                ? compression.compress(content)
+                : null;
+        Resource resource = new Resource(file, mimeType, content.length, lastModified, strongEtag(content),
+                content, gzipContent);
+        store(requested, resource, readGeneration);
+        return resource;
+    }
+
+    private synchronized void store(Path key, Resource resource, long readGeneration) {
+        if (invalidatedSince(readGeneration, resource.file())) {
+            return;
+        }
+        Resource previous = entries.put(key, resource);
+        if (previous != null) {
+            cachedBytes -= previous.cachedBytes();
+        }
+        cachedBytes += resource.cachedBytes();
+
+        Iterator<Resource> eldest = entries.values().iterator();
+        while (cachedBytes > maxBytes && eldest.hasNext()) {
+            cachedBytes -= eldest.next().cachedBytes();
+            eldest.remove();
+        }
+    }
+
+    private Path resolve(Path requested) throws IOException {
+        if (!Files.exists(requested)) {
+            return null;
+        }
+        // Symlinks may still lead outside the root
+        requested = requested.toRealPath();
+        if (!requested.startsWith(root)) {
+            return null;
+        }
+
+        if (Files.isDirectory(requested)) {
+            requested = requested.resolve("index.html");
+        }
+        return Files.isRegularFile(requested) ? requested : null;
+    }
+
+    private static String strongEtag(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Assumes so once the log no longer reaches back to the given generation
+    private boolean invalidatedSince(long since, Path file) {
+        if (generation - since > recentInvalidations.size()) {
+            return true;
+        }
+        for (Invalidation invalidation : recentInvalidations) {
+            if (invalidation.generation() > since && file.startsWith(invalidation.path())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void logInvalidation(Path path) {
+        generation++;
+        recentInvalidations.addLast(new Invalidation(generation, path));
+        if (recentInvalidations.size() > MAX_LOGGED_INVALIDATIONS) {
+            recentInvalidations.removeFirst();
+        }
+    }
+
+    public synchronized void invalidate(Path file) {
+        logInvalidation(file);
+        Iterator<Resource> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Resource resource = iterator.next();
+            if (resource.file().equals(file) || resource.file().startsWith(file)) {
+                cachedBytes -= resource.cachedBytes();
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        logInvalidation(root);
+        entries.clear();
+        cachedBytes = 0;
+    }
+
+    private void registerTree(Path dir) throws IOException {
+        Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path subDir, BasicFileAttributes attrs) throws IOException {
+                subDir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void watch() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            Path dir = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    invalidateAll();
+                    continue;
+                }
+                Path changed = dir.resolve((Path) event.context());
+                invalidate(changed);
+                if (event.kind() == ENTRY_CREATE && Files.isDirectory(changed)) {
+                    try {
+                        registerTree(changed);
+                    } catch (IOException e) {
+                        log.warn("Could not watch new static directory {}: {}", changed, e.getMessage());
+                    }
+                }
+                // A new index.html or a renamed directory can change what "/dir/" resolves to
+                if (event.kind() != ENTRY_MODIFY) {
+                    invalidate(dir.resolve("index.html"));
+                }
+            }
+            key.reset();
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        watcher.interrupt();
+    }
+}
@@ -0,0 +1,27 @@
+package com.iimmersao.springmimic.server;
+
+import fi.iki.elonen.NanoHTTPD;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * NanoHTTPD's default behaviour: a new daemon platform thread for every connection.
+ */
+public class ThreadPerConnectionAsyncRunner extends TrackingAsyncRunner {
+
+    private final AtomicLong requestCount = new AtomicLong();
+
+    @Override
+    protected boolean submit(NanoHTTPD.ClientHandler handler) {
+        Thread thread = new Thread(handler);
+        thread.setDaemon(true);
+        thread.setName("NanoHttpd Request Processor (#" + requestCount.incrementAndGet() + ")");
+        thread.start();
+        return true;
+    }
+
+    @Override
+    public String getName() {
+        return "thread-per-connection";
+    }
+}
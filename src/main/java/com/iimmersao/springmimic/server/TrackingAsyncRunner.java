@@ -0,0 +1,66 @@
+package com.iimmersao.springmimic.server;
+
+import fi.iki.elonen.NanoHTTPD;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base for the AsyncRunners WebServer installs. NanoHTTPD hands each accepted connection
+ * to {@link #exec} and calls {@link #closed} when the connection's handler finishes, so
+ * the counts here are open connections, not individual requests.
+ */
+public abstract class TrackingAsyncRunner implements NanoHTTPD.AsyncRunner {
+
+    private final Set<NanoHTTPD.ClientHandler> running = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+
+    /**
+     * Starts running the handler, or returns false if it cannot be accepted.
+     */
+    protected abstract boolean submit(NanoHTTPD.ClientHandler handler);
+
+    /**
+     * Releases any threads owned by this runner once the server has stopped.
+     */
+    public void shutdown() {
+    }
+
+    public abstract String getName();
+
+    @Override
+    public void exec(NanoHTTPD.ClientHandler handler) {
+        running.add(handler);
+        peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+        if (!submit(handler)) {
+            handler.close();
+            closed(handler);
+        }
+    }
+
+    @Override
+    public void closed(NanoHTTPD.ClientHandler handler) {
+        if (running.remove(handler)) {
+            active.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void closeAll() {
+        // Copy first: closing a handler makes its thread call closed() concurrently
+        for (NanoHTTPD.ClientHandler handler : new ArrayList<>(running)) {
+            handler.close();
+        }
+    }
+
+    public int getActiveConnections() {
+        return active.get();
+    }
+
+    public int getPeakConnections() {
+        return peak.get();
+    }
+}
@@ -0,0 +1,25 @@
+package com.iimmersao.springmimic.server;
+
+import fi.iki.elonen.NanoHTTPD;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs each connection on its own virtual thread, so handlers blocked on JDBC or
+ * RestClient calls park instead of pinning a platform thread.
+ */
+public class VirtualThreadAsyncRunner extends TrackingAsyncRunner {
+
+    private final ThreadFactory threadFactory = Thread.ofVirtual().name("http-virtual-", 0).factory();
+
+    @Override
+    protected boolean submit(NanoHTTPD.ClientHandler handler) {
+        threadFactory.newThread(handler).start();
+        return true;
+    }
+
+    @Override
+    public String getName() {
+        return "virtual";
+    }
+}
@@ -8,26 +8,40 @@ import com.iimmersao.springmimic.exceptions.RouteNotFoundException;
 import com.iimmersao.springmimic.routing.Port;
 import com.iimmersao.springmimic.routing.Router;
 import com.iimmersao.springmimic.routing.RouteMatch;
+import com.iimmersao.springmimic.web.ResponseFactory;
 import fi.iki.elonen.NanoHTTPD;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
-import java.io.FileInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 
 @Component
 public class WebServer extends NanoHTTPD {
 
     private static final Logger log = LoggerFactory.getLogger(WebServer.class);
 
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+
     @Inject
     private final Router router;
 
-    private File staticDir;
+    private StaticResourceCache staticResources;
+
+    private TrackingAsyncRunner connectionRunner;
+
+    private AdmissionController admissionController = AdmissionController.fromConfig(null);
+
+    private ResponseCompression compression = ResponseCompression.fromConfig(null);
 
     @Inject
     @SuppressWarnings(value = "unused")
@@ -38,49 +52,119 @@ public class WebServer extends NanoHTTPD {
         this.router = router;
     }
 
+    @Override
+    public void start(int timeout, boolean daemon) throws IOException {
+        connectionRunner = createAsyncRunner();
+        setAsyncRunner(connectionRunner);
+        log.info("Request executor: {}", connectionRunner.getName());
+        admissionController = AdmissionController.fromConfig(configLoader);
+        if (admissionController.getMaxInFlight() > 0) {
+            log.info("Admission control: at most {} requests in flight", admissionController.getMaxInFlight());
+        }
+        compression = ResponseCompression.fromConfig(configLoader);
+        staticResources = createStaticResourceCache();
+        super.start(timeout, daemon);
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        if (connectionRunner != null) {
+            connectionRunner.shutdown();
+            log.info("Server stopped; peak concurrent connections: {}", connectionRunner.getPeakConnections());
+        }
+        if (staticResources != null) {
+            try {
+                staticResources.close();
+            } catch (IOException e) {
+                log.warn("Failed to stop static file watcher: {}", e.getMessage());
+            }
+            staticResources = null;
+        }
+    }
+
+    // Automatically load from config
+    private StaticResourceCache createStaticResourceCache() throws IOException {
+        String staticPath = configLoader != null ? configLoader.get("static.path") : null;
+        Path staticDir = staticPath != null ? Paths.get("").toAbsolutePath().resolve(staticPath) : null;
+        if (staticDir == null || !Files.isDirectory(staticDir)) {
+            log.info("No static file directory configured or found.");
+            return null;
+        }
+        log.info("Static file directory: {}", staticDir);
+        return new StaticResourceCache(staticDir,
+                configLoader.getLong("static.cache.maxBytes", 32L * 1024 * 1024),
+                configLoader.getLong("static.cache.maxFileBytes", 1024 * 1024),
+                compression);
+    }
+
+    // server.executor selects how connections are run: virtual | platform-pool | thread-per-connection
+    private TrackingAsyncRunner createAsyncRunner() {
+        String executor = configLoader != null
+                ? configLoader.get("server.executor", "thread-per-connection").trim().toLowerCase()
+                : "thread-per-connection";
+        return switch (executor) {
+            case "virtual" -> new VirtualThreadAsyncRunner();
+            case "platform-pool" -> new BoundedPoolAsyncRunner(
+                    configLoader.getInt("server.pool.maxThreads", 64),
+                    configLoader.getInt("server.pool.queueSize", 128));
+            case "thread-per-connection" -> new ThreadPerConnectionAsyncRunner();
+            default -> throw new IllegalArgumentException("Unsupported server executor: " + executor);
+        };
+    }
+
+    public int getActiveConnections() {
+        return connectionRunner != null ? connectionRunner.getActiveConnections() : 0;
+    }
+
+    public int getPeakConnections() {
+        return connectionRunner != null ? connectionRunner.getPeakConnections() : 0;
+    }
+
+    public AdmissionController getAdmissionController() {
+        return admissionController;
+    }
+
+    public ResponseCompression getCompression() {
+        return compression;
+    }
+
+    public StaticResourceCache getStaticResources() {
+        return staticResources;
+    }
+
     @Override
     public Response serve(IHTTPSession session) {
         String uri = session.getUri();
         String method = session.getMethod().name();
 
-        // Automatically load from config
-        if (staticDir == null) {
-            String staticPath = configLoader.get("static.path");
-            staticDir = staticPath != null
-                    ? Paths.get("").toAbsolutePath().resolve(staticPath).toFile()
-                    : null;
-            if (staticDir != null && staticDir.exists()) {
-                log.info("Static file directory: {}", staticDir.getAbsolutePath());
-            } else {
-                log.info("No static file directory configured or found.");
-            }
+        AdmissionController.Admission admission = admissionController.admit(uri);
+        if (admission == AdmissionController.Admission.REJECTED) {
+            return ResponseFactory.serviceUnavailable("Server is overloaded, please retry",
+                    admissionController.getRetryAfterSeconds());
         }
 
         try {
             // 1. Try dynamic route first
             RouteMatch match = router.findHandler(method, uri);
             if (match != null) {
-                return match.getHandler().handle(session, match.getMatcher());
+                return compress(session, match.getHandler().handle(session, match));
             }
 
             // 2. If no route, try to serve static content
             // Serve static file if it exists
-            if (staticDir != null && staticDir.exists() && staticDir.isDirectory()) {
-                File file = resolveStaticFile(uri);
-                if (file != null && file.exists() && file.isFile()) {
-                    try {
-                        String mime = getMimeTypeForFile(file.getName());
-                        FileInputStream fis = new FileInputStream(file);
-                        return newChunkedResponse(Response.Status.OK, mime, fis);
-                    } catch (IOException e) {
-                        return ExceptionHandler.handle(e);
-                    }
+            if (staticResources != null) {
+                StaticResourceCache.Resource resource = staticResources.lookup(uri);
+                if (resource != null) {
+                    return compress(session, serveStatic(session, resource));
                 }
             }
 
             throw new RouteNotFoundException("No route matched for " + method + " " + uri);
         } catch (Exception e) {
             return ExceptionHandler.handle(e);
+        } finally {
+            admissionController.release(admission);
         }
     }
 
@@ -95,23 +179,125 @@ public class WebServer extends NanoHTTPD {
         return "application/octet-stream";
     }
 
-    private File resolveStaticFile(String uri) {
-        try {
-            String decodedPath = URLDecoder.decode(uri, StandardCharsets.UTF_8);
-            File requested = new File(staticDir, decodedPath).getCanonicalFile();
+    private Response serveStatic(IHTTPSession session, StaticResourceCache.Resource resource) throws IOException {
+        String lastModified = HTTP_DATE.format(Instant.ofEpochMilli(resource.lastModified()));
+
+        boolean gzip = resource.gzipContent() != null
+                && ResponseCompression.acceptsGzip(session.getHeaders().get("accept-encoding"))
+                && session.getHeaders().get("range") == null;
 
-            // Prevent path traversal attack
-            if (!requested.getPath().startsWith(staticDir.getCanonicalPath())) {
-                return null;
+        Response response;
+        if (isNotModified(session, resource)) {
+            response = newFixedLengthResponse(Response.Status.NOT_MODIFIED, null, "");
+        } else if (gzip) {
+            // Compressed once when the file was cached
+            response = newFixedLengthResponse(Response.Status.OK, resource.mimeType(),
+                    new ByteArrayInputStream(resource.gzipContent()), resource.gzipContent().length);
+            response.addHeader("Content-Encoding", "gzip");
+        } else {
+            ByteRange range = rangeFor(session, resource, lastModified);
+            if (range == ByteRange.UNSATISFIABLE) {
+                response = newFixedLengthResponse(Response.Status.RANGE_NOT_SATISFIABLE, null, "");
+                response.addHeader("Content-Range", "bytes */" + resource.length());
+            } else if (range != null) {
+                response = newFixedLengthResponse(Response.Status.PARTIAL_CONTENT, resource.mimeType(),
+                        openStatic(resource, range.start(), range.length()), range.length());
+                response.addHeader("Content-Range", range.contentRange(resource.length()));
+            } else {
+                response = newFixedLengthResponse(Response.Status.OK, resource.mimeType(),
+                        openStatic(resource, 0, resource.length()), resource.length());
             }
+        }
+        if (compression.isCompressible(resource.mimeType(), resource.length())) {
+            response.addHeader("Vary", "Accept-Encoding");
+        }
+        response.addHeader("Accept-Ranges", "bytes");
+        response.addHeader("ETag", gzip ? resource.gzipEtag() : resource.etag());
+        response.addHeader("Last-Modified", lastModified);
+        return response;
+    }
+
+    private static InputStream openStatic(StaticResourceCache.Resource resource, long offset, long length)
+            throws IOException {
+        if (resource.content() != null) {
+            return new ByteArrayInputStream(resource.content(), (int) offset, (int) length);
+        }
+        return new MappedFileInputStream(resource.file(), offset, length);
+    }
+
+    // A Range is ignored when If-Range names a different version than the one on disk
+    private static ByteRange rangeFor(IHTTPSession session, StaticResourceCache.Resource resource, String lastModified) {
+        ByteRange range = ByteRange.parse(session.getHeaders().get("range"), resource.length());
+        String ifRange = session.getHeaders().get("if-range");
+        if (range == null || ifRange == null) {
+            return range;
+        }
+        ifRange = ifRange.trim();
+        boolean current = ifRange.startsWith("\"") ? ifRange.equals(resource.etag()) : ifRange.equals(lastModified);
+        return current ? range : null;
+    }
+
+    // Gzips a body on its way out if the client accepts it and the compression policy allows it
+    private Response compress(IHTTPSession session, Response response) throws IOException {
+        InputStream data = response.getData();
+        if (data == null
+                || response.getHeader("Content-Encoding") != null
+                || response.getHeader("Content-Range") != null
+                || !ResponseCompression.acceptsGzip(session.getHeaders().get("accept-encoding"))) {
+            return response;
+        }
+
+        // Bodies built from strings or byte arrays know their size; streams are compressed regardless
+        long length = data instanceof ByteArrayInputStream ? data.available() : -1;
+        if (!compression.isCompressible(response.getMimeType(), length)) {
+            return response;
+        }
+
+        response.setData(compression.compressing(data));
+        response.setChunkedTransfer(true);
+        response.addHeader("Content-Encoding", "gzip");
+        // Routes that negotiate the body format already vary on Accept
+        String vary = response.getHeader("Vary");
+        response.addHeader("Vary", vary != null ? vary + ", Accept-Encoding" : "Accept-Encoding");
+        String etag = response.getHeader("ETag");
+        if (etag != null) {
+            response.addHeader("ETag", etag.substring(0, etag.length() - 1) + "-gz\"");
+        }
+        return response;
+    }
 
-            if (requested.isDirectory()) {
-                requested = new File(requested, "index.html");
+    // compress() does this instead, with a size threshold, a type allowlist and metrics
+    @Override
+    protected boolean useGzipWhenAccepted(Response r) {
+        return false;
+    }
+
+    // If-None-Match takes precedence; If-Modified-Since is only consulted without it (RFC 9110 13.2.2)
+    private boolean isNotModified(IHTTPSession session, StaticResourceCache.Resource resource) {
+        String ifNoneMatch = session.getHeaders().get("if-none-match");
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = stripWeak(candidate.trim());
+                if (tag.equals("*") || tag.equals(resource.etag()) || tag.equals(resource.gzipEtag())) {
+                    return true;
+                }
             }
+            return false;
+        }
 
-            return requested;
-        } catch (IOException e) {
-            return null;
+        String ifModifiedSince = session.getHeaders().get("if-modified-since");
+        if (ifModifiedSince != null) {
+            try {
+                long since = ZonedDateTime.parse(ifModifiedSince, HTTP_DATE).toInstant().toEpochMilli();
+                return resource.lastModified() <= since;
+            } catch (DateTimeParseException e) {
+                return false;
+            }
         }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,114 @@
+package com.iimmersao.springmimic.web;
+
+import com.iimmersao.springmimic.core.ConfigLoader;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends each published event to every subscribed {@link EventStream}, so that dashboards
+ * can be pushed updates rather than poll for them:
+ * <pre>
+ * &#64;GetMapping("/orders/events")
+ * public EventStream orderEvents() {
+ *     return broadcaster.subscribe();
+ * }
+ *
+ * // wherever orders change
+ * broadcaster.publish(ServerSentEvent.of("order", order));
+ * </pre>
+ * Publishing never waits for a client: each subscriber has its own buffer of
+ * {@code bufferSize} events, and one that falls that far behind is evicted, its buffered
+ * events counted as dropped. A subscriber leaves when its client disconnects or its stream
+ * is closed.
+ */
+public class Broadcaster {
+
+    private final int bufferSize;
+    // Published to far more often than subscribed to
+    private final List<EventStream> subscribers = new CopyOnWriteArrayList<>();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param bufferSize events each subscriber may fall behind before it is evicted
+     */
+    public Broadcaster(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Builds a broadcaster with the server.sse.bufferSize setting.
+     */
+    public static Broadcaster fromConfig(ConfigLoader config) {
+        return new Broadcaster(config != null ? config.getInt("server.sse.bufferSize", 256) : 256);
+    }
+
+    /**
+     * A new stream that gets every event published from now on, to be returned by a handler.
+     */
+    public EventStream subscribe() {
+        EventStream stream = new EventStream(bufferSize);
+        subscribers.add(stream);
+        stream.onClose(() -> {
+            subscribers.remove(stream);
+            if (stream.isEvicted()) {
+                evictions.increment();
+                dropped.add(stream.getDroppedEvents());
+            }
+        });
+        return stream;
+    }
+
+    public int publish(Object data) {
+        return publish(ServerSentEvent.of(data));
+    }
+
+    /**
+     * @return how many subscribers the event was queued for
+     */
+    public int publish(ServerSentEvent event) {
+        published.increment();
+        int delivered = 0;
+        for (EventStream subscriber : subscribers) {
+            if (subscriber.send(event)) {
+                delivered++;
+            }
+        }
+        return delivered;
+    }
+
+    /**
+     * Ends every subscriber's response once its buffered events are written, e.g. on shutdown.
+     */
+    public void close() {
+        for (EventStream subscriber : subscribers) {
+            subscriber.close();
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getPublishedEvents() {
+        return published.sum();
+    }
+
+    /**
+     * Events subscribers did not get because they were evicted for falling behind.
+     */
+    public long getDroppedEvents() {
+        return dropped.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+}
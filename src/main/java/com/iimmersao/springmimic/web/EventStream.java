@@ -0,0 +1,193 @@
+package com.iimmersao.springmimic.web;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An open {@code text/event-stream} response. A handler returning one keeps the connection
+ * open and the server writes each event sent to it, until it is closed:
+ * <pre>
+ * &#64;GetMapping("/jobs/{id}/progress")
+ * public EventStream progress(&#64;PathVariable("id") String id) {
+ *     EventStream events = new EventStream(16);
+ *     jobs.onProgress(id, percent -&gt; events.send(ServerSentEvent.of("progress", percent)));
+ *     return events;
+ * }
+ * </pre>
+ * or, for events every subscriber gets, from {@link Broadcaster#subscribe()}.
+ * <p>
+ * Events wait in a buffer of {@code capacity} events until the connection's thread writes
+ * them. A client that falls that far behind is evicted: the buffered events are dropped and
+ * the connection is ended, and a browser's EventSource reconnects, sending the id of the
+ * last event it got. While no events arrive the connection's thread waits on this stream,
+ * which with {@code server.executor=virtual} parks a virtual thread rather than holding a
+ * platform one.
+ */
+public final class EventStream {
+
+    private enum State { OPEN, CLOSING, CLOSED }
+
+    private final int capacity;
+    private final ArrayDeque<ServerSentEvent> buffer = new ArrayDeque<>();
+    // Parks a virtual thread without pinning it to its carrier, which synchronized would in Java 21
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final List<Runnable> closeListeners = new CopyOnWriteArrayList<>();
+    private State state = State.OPEN;
+    private boolean evicted;
+    private long dropped;
+
+    /**
+     * @param capacity how many events may wait to be written before the client is evicted
+     */
+    public EventStream(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.capacity = capacity;
+    }
+
+    public boolean send(Object data) {
+        return send(ServerSentEvent.of(data));
+    }
+
+    /**
+     * Queues an event for the client without waiting for it to be written.
+     *
+     * @return false if the stream is closed, or if the buffer was full and the client has
+     * been evicted
+     */
+    public boolean send(ServerSentEvent event) {
+        lock.lock();
+        try {
+            if (state != State.OPEN) {
+                return false;
+            }
+            if (buffer.size() == capacity) {
+                evicted = true;
+                dropped = buffer.size() + 1L;
+                buffer.clear();
+                state = State.CLOSED;
+                changed.signalAll();
+            } else {
+                buffer.add(event);
+                changed.signal();
+                return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        notifyClosed();
+        return false;
+    }
+
+    /**
+     * Ends the response once the events already sent have been written. The server calls
+     * this too when the client goes away.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            if (state != State.OPEN) {
+                return;
+            }
+            state = buffer.isEmpty() ? State.CLOSED : State.CLOSING;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        notifyClosed();
+    }
+
+    /**
+     * Runs the listener once the stream stops accepting events, at once if it already has.
+     */
+    public void onClose(Runnable listener) {
+        closeListeners.add(listener);
+        if (!isOpen() && closeListeners.remove(listener)) {
+            listener.run();
+        }
+    }
+
+    private void notifyClosed() {
+        for (Runnable listener : closeListeners) {
+            if (closeListeners.remove(listener)) {
+                listener.run();
+            }
+        }
+    }
+
+    /**
+     * Takes the next event to write, waiting up to {@code timeoutNanos} for one.
+     *
+     * @return the event, or null if none arrived in time or the stream is finished
+     */
+    public ServerSentEvent next(long timeoutNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            long remaining = timeoutNanos;
+            while (buffer.isEmpty() && state == State.OPEN && remaining > 0) {
+                remaining = changed.awaitNanos(remaining);
+            }
+            ServerSentEvent event = buffer.poll();
+            if (buffer.isEmpty() && state == State.CLOSING) {
+                state = State.CLOSED;
+            }
+            return event;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isOpen() {
+        lock.lock();
+        try {
+            return state == State.OPEN;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * True once the stream is closed and every event sent before has been taken.
+     */
+    public boolean isFinished() {
+        lock.lock();
+        try {
+            return state == State.CLOSED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether the client was evicted for falling {@code capacity} events behind.
+     */
+    public boolean isEvicted() {
+        lock.lock();
+        try {
+            return evicted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Events discarded when the client was evicted, including the one that did not fit.
+     */
+    public long getDroppedEvents() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,125 @@
+package com.iimmersao.springmimic.web;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs several blocking calls at once, each on its own virtual thread, so that a handler
+ * needing the results of several downstream calls takes as long as the slowest of them
+ * rather than their sum:
+ * <pre>
+ * try (FanOut fanOut = new FanOut(Duration.ofSeconds(2))) {
+ *     FanOut.Task&lt;User&gt; user = fanOut.fork(() -&gt; userRepository.findById(id).orElseThrow());
+ *     FanOut.Task&lt;RestResponse&gt; orders = fanOut.fork(() -&gt; restClient.get(ordersUrl));
+ *     fanOut.join();
+ *     return new Dashboard(user.get(), orders.get().getBody());
+ * }
+ * </pre>
+ * When a call fails the others are interrupted and {@link #join()} throws its exception; when
+ * the deadline passes first, the unfinished calls are interrupted and join() throws
+ * TimeoutException (a 503 for the request). Closing the FanOut interrupts anything still
+ * running and waits for it to finish, so no call is left behind by a handler that returned
+ * early; a call that ignores interruption holds up close() until it returns.
+ * <p>
+ * Calls are forked and joined by the thread that created the FanOut.
+ */
+public final class FanOut implements AutoCloseable {
+
+    /**
+     * The result of a forked call, available once {@link #join()} has returned.
+     */
+    public static final class Task<T> {
+
+        private final Future<T> future;
+
+        private Task(Future<T> future) {
+            this.future = future;
+        }
+
+        public T get() {
+            if (future.state() != Future.State.SUCCESS) {
+                throw new IllegalStateException("Task has not completed successfully; call join() first");
+            }
+            return future.resultNow();
+        }
+    }
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Duration timeout;
+    private final long deadline;
+    private final List<Future<?>> futures = new CopyOnWriteArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * @param timeout how long {@link #join()} waits, counted from now
+     */
+    public FanOut(Duration timeout) {
+        this.timeout = timeout;
+        this.deadline = System.nanoTime() + timeout.toNanos();
+    }
+
+    public <T> Task<T> fork(Callable<? extends T> call) {
+        Future<T> future = executor.submit(() -> {
+            try {
+                return call.call();
+            } catch (Exception | Error e) {
+                fail(e);
+                throw e;
+            }
+        });
+        futures.add(future);
+        if (failure.get() != null) {
+            // Forked after another call failed
+            future.cancel(true);
+        }
+        return new Task<>(future);
+    }
+
+    /**
+     * Waits for every forked call to complete.
+     *
+     * @throws TimeoutException if they have not all completed by the deadline
+     * @throws Exception        the first exception thrown by a call
+     */
+    public void join() throws Exception {
+        for (Future<?> future : futures) {
+            try {
+                future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                cancelAll();
+                throw new TimeoutException("Fan-out did not complete within " + timeout.toMillis() + " ms");
+            } catch (ExecutionException | CancellationException e) {
+                // The failed call's own exception is rethrown below
+                break;
+            }
+        }
+        Throwable cause = failure.get();
+        if (cause instanceof Exception exception) {
+            throw exception;
+        }
+        if (cause != null) {
+            throw (Error) cause;
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        // Waits for the calls to end, keeping the closing thread's interrupt status if it is interrupted
+        executor.close();
+    }
+
+    private void fail(Throwable cause) {
+        if (failure.compareAndSet(null, cause)) {
+            cancelAll();
+        }
+    }
+
+    private void cancelAll() {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+}
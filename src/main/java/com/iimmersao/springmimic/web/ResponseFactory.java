@@ -30,6 +30,12 @@ public class ResponseFactory {
         return NanoHTTPD.newFixedLengthResponse(NanoHTTPD.Response.Status.NOT_FOUND, "text/plain", message);
     }
 
+    public static NanoHTTPD.Response serviceUnavailable(String message, int retryAfterSeconds) {
+        NanoHTTPD.Response response = NanoHTTPD.newFixedLengthResponse(NanoHTTPD.Response.Status.SERVICE_UNAVAILABLE, "text/plain", message);
+        response.addHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        return response;
+    }
+
     public static NanoHTTPD.Response internalServerError(String message) {
         return NanoHTTPD.newFixedLengthResponse(NanoHTTPD.Response.Status.INTERNAL_ERROR, "text/plain", message);
     }
@@ -0,0 +1,30 @@
+package com.iimmersao.springmimic.web;
+
+/**
+ * One event of a {@code text/event-stream} response. Its data is sent as-is if it is a
+ * String and as JSON otherwise.
+ *
+ * @param event the event name, which browsers dispatch to listeners of that name; null for "message"
+ * @param id    the id a reconnecting client sends back in Last-Event-ID; may be null
+ * @param data  the payload; null sends an empty data line
+ */
+public record ServerSentEvent(String event, String id, Object data) {
+
+    public ServerSentEvent {
+        // A line break would end the field early and let the rest pass for other fields
+        if (event != null && (event.indexOf('\n') >= 0 || event.indexOf('\r') >= 0)) {
+            throw new IllegalArgumentException("Event name must not contain line breaks");
+        }
+        if (id != null && (id.indexOf('\n') >= 0 || id.indexOf('\r') >= 0 || id.indexOf('\0') >= 0)) {
+            throw new IllegalArgumentException("Event id must not contain line breaks or NUL");
+        }
+    }
+
+    public static ServerSentEvent of(Object data) {
+        return new ServerSentEvent(null, null, data);
+    }
+
+    public static ServerSentEvent of(String event, Object data) {
+        return new ServerSentEvent(event, null, data);
+    }
+}
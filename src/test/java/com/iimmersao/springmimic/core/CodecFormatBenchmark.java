@@ -0,0 +1,92 @@
+package com.iimmersao.springmimic.core;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares serialization and parsing time of a typical service-to-service payload in JSON,
+ * CBOR and Smile; {@code main} also prints the encoded size in each format.
+ * <p>
+ * Run after {@code mvn test-compile} with:
+ * <pre>
+ * mvn exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.iimmersao.springmimic.core.CodecFormatBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings(value = "unused")
+public class CodecFormatBenchmark {
+
+    public record Order(long id, String customer, String status, double total, List<Line> lines) {
+    }
+
+    public record Line(String sku, int quantity, double price) {
+    }
+
+    @Param({CodecRegistry.JSON, CodecRegistry.CBOR, CodecRegistry.SMILE})
+    public String mediaType;
+
+    private List<Order> orders;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private byte[] encoded;
+
+    static List<Order> sampleOrders() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            List<Line> lines = new ArrayList<>();
+            for (int j = 0; j < 5; j++) {
+                lines.add(new Line("SKU-" + (i * 5 + j), j + 1, 9.99 + j));
+            }
+            orders.add(new Order(i, "customer-" + i, i % 3 == 0 ? "SHIPPED" : "PENDING", 123.45 + i, lines));
+        }
+        return orders;
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        CodecRegistry codecs = new CodecRegistry();
+        orders = sampleOrders();
+        writer = codecs.writer(mediaType, Order[].class);
+        reader = codecs.reader(mediaType, Order[].class);
+        encoded = writer.writeValueAsBytes(orders.toArray(new Order[0]));
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return writer.writeValueAsBytes(orders.toArray(new Order[0]));
+    }
+
+    @Benchmark
+    public Object deserialize() throws Exception {
+        return reader.readValue(encoded);
+    }
+
+    public static void main(String[] args) throws Exception {
+        CodecRegistry codecs = new CodecRegistry();
+        Order[] payload = sampleOrders().toArray(new Order[0]);
+        for (String mediaType : List.of(CodecRegistry.JSON, CodecRegistry.CBOR, CodecRegistry.SMILE)) {
+            System.out.printf("%-28s %,d bytes%n", mediaType, codecs.writer(mediaType, Order[].class).writeValueAsBytes(payload).length);
+        }
+        try {
+            new Runner(new OptionsBuilder()
+                    .include(CodecFormatBenchmark.class.getSimpleName())
+                    .build()).run();
+        } catch (RunnerException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.iimmersao.springmimic.core;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings(value = "unused")
+class CodecRegistryTest {
+
+    public static class Animal {
+        public String name = "Rex";
+    }
+
+    public static class Dog extends Animal {
+        public boolean goodBoy = true;
+    }
+
+    public record Point(int x, int y) {
+    }
+
+    private final CodecRegistry codecs = new CodecRegistry();
+
+    @Test
+    void shouldCacheReadersAndWritersPerType() {
+        assertSame(codecs.jsonReader(Point.class), codecs.jsonReader(Point.class));
+        assertSame(codecs.jsonWriter(Point.class), codecs.jsonWriter(Point.class));
+        assertSame(codecs.xmlWriter(Point.class), codecs.xmlWriter(Point.class));
+    }
+
+    @Test
+    void shouldReadGenericParameterTypes() throws Exception {
+        List<Point> points = codecs.jsonReader(new TypeReference<List<Point>>() { }.getType())
+                .readValue("[{\"x\":1,\"y\":2}]");
+
+        assertEquals(new Point(1, 2), points.getFirst());
+    }
+
+    @Test
+    void shouldKeepSubclassPropertiesForNonFinalDeclaredType() throws Exception {
+        ObjectWriter writer = codecs.jsonWriter(Animal.class);
+
+        assertEquals("{\"name\":\"Rex\",\"goodBoy\":true}", writer.writeValueAsString(new Dog()));
+    }
+
+    @Test
+    void shouldApplyRegisteredSerializerToLaterLookups() throws Exception {
+        codecs.jsonWriter(Point.class);
+        codecs.registerSerializer(Point.class, new JsonSerializer<>() {
+            @Override
+            public void serialize(Point value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+                gen.writeString(value.x() + "," + value.y());
+            }
+        });
+
+        assertEquals("\"3,4\"", codecs.jsonWriter(Point.class).writeValueAsString(new Point(3, 4)));
+        assertEquals("[\"5,6\"]", codecs.jsonWriter().writeValueAsString(List.of(new Point(5, 6))));
+    }
+
+    @Test
+    void shouldNegotiateBinaryFormatOnlyWhenPreferred() {
+        assertEquals(CodecRegistry.CBOR, CodecRegistry.negotiateBinary("application/cbor"));
+        assertEquals(CodecRegistry.SMILE, CodecRegistry.negotiateBinary("application/x-jackson-smile, application/json;q=0.5"));
+        assertEquals(CodecRegistry.CBOR, CodecRegistry.negotiateBinary("application/cbor, */*"));
+        assertNull(CodecRegistry.negotiateBinary("application/json, application/cbor;q=0.5"));
+        assertNull(CodecRegistry.negotiateBinary("application/cbor;q=0"));
+        assertNull(CodecRegistry.negotiateBinary("*/*"));
+        assertNull(CodecRegistry.negotiateBinary(null));
+    }
+
+    @Test
+    void shouldNegotiateNdjsonOnlyForStreams() {
+        assertEquals(CodecRegistry.NDJSON, CodecRegistry.negotiateStream("application/x-ndjson"));
+        assertEquals(CodecRegistry.CBOR, CodecRegistry.negotiateStream("application/cbor, application/x-ndjson;q=0.5"));
+        assertNull(CodecRegistry.negotiateStream("application/json, application/x-ndjson;q=0.9"));
+        assertNull(CodecRegistry.negotiateBinary("application/x-ndjson"));
+    }
+
+    @Test
+    void shouldRoundTripThroughBinaryFormats() throws Exception {
+        for (String mediaType : List.of(CodecRegistry.CBOR, CodecRegistry.SMILE)) {
+            byte[] bytes = codecs.writer(mediaType, Point.class).writeValueAsBytes(new Point(7, 8));
+
+            assertEquals(new Point(7, 8), codecs.reader(mediaType, Point.class).readValue(bytes));
+        }
+        assertTrue(CodecRegistry.isBinary("application/cbor; charset=binary"));
+        assertFalse(CodecRegistry.isBinary(CodecRegistry.JSON));
+        assertFalse(codecs.supports("application/vnd.example+json"));
+    }
+}
@@ -0,0 +1,63 @@
+package com.iimmersao.springmimic.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings(value = "unused")
+class TypeConverterRegistryTest {
+
+    enum Color { RED, GREEN }
+
+    record Money(long cents) {
+    }
+
+    private final TypeConverterRegistry registry = new TypeConverterRegistry();
+
+    @Test
+    void shouldConvertBuiltInTypes() {
+        assertEquals(42, registry.converterFor(int.class).convert("42"));
+        assertEquals(2.5, registry.converterFor(double.class).convert("2.5"));
+        assertEquals(new BigDecimal("10.10"), registry.converterFor(BigDecimal.class).convert("10.10"));
+        assertEquals(true, registry.converterFor(boolean.class).convert("TRUE"));
+        assertEquals(UUID.fromString("3f2504e0-4f89-11d3-9a0c-0305e82c3301"),
+                registry.converterFor(UUID.class).convert("3f2504e0-4f89-11d3-9a0c-0305e82c3301"));
+        assertEquals(LocalDateTime.of(2024, 2, 29, 12, 30),
+                registry.converterFor(LocalDateTime.class).convert("2024-02-29T12:30"));
+        assertEquals(Instant.EPOCH, registry.converterFor(Instant.class).convert("1970-01-01T00:00:00Z"));
+        assertEquals(Duration.ofMinutes(5), registry.converterFor(Duration.class).convert("PT5M"));
+    }
+
+    @Test
+    void shouldConvertEnumsByNameIgnoringCase() {
+        TypeConverter<?> converter = registry.converterFor(Color.class);
+
+        assertEquals(Color.GREEN, converter.convert("green"));
+        assertSame(converter, registry.converterFor(Color.class));
+        assertThrows(IllegalArgumentException.class, () -> converter.convert("blue"));
+    }
+
+    @Test
+    void shouldRejectInvalidValues() {
+        assertThrows(IllegalArgumentException.class, () -> registry.converterFor(boolean.class).convert("yes"));
+        assertThrows(NumberFormatException.class, () -> registry.converterFor(long.class).convert("1.5"));
+        assertThrows(IllegalArgumentException.class, () -> registry.converterFor(char.class).convert("ab"));
+    }
+
+    @Test
+    void shouldUseRegisteredConverters() {
+        assertNull(registry.converterFor(Money.class));
+
+        registry.register(Money.class, value -> new Money(new BigDecimal(value).movePointRight(2).longValueExact()));
+        registry.register(Integer.class, value -> Integer.decode(value));
+
+        assertEquals(new Money(1999), registry.converterFor(Money.class).convert("19.99"));
+        assertEquals(255, registry.converterFor(int.class).convert("0xff"));
+    }
+}
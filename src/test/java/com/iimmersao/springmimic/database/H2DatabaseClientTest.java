@@ -210,4 +210,45 @@ class H2DatabaseClientTest {
         assertFalse(found.isPresent());
     }
 
+    @Test
+    @Order(12)
+    void shouldCountWritesPerEntityType() {
+        EntityVersions versions = client.getEntityVersions();
+        long before = versions.get(H2User.class);
+
+        H2User user = new H2User();
+        user.setUsername("dave");
+        user.setEmail("dave@example.com");
+        client.save(user);
+        user.setEmail("dave@example.org");
+        client.updateById(user);
+        client.findById(H2User.class, user.getId());
+        client.deleteById(H2User.class, user.getId());
+
+        assertEquals(before + 3, versions.get(H2User.class));
+        assertEquals(0, versions.get(String.class));
+    }
+
+    @Test
+    @Order(13)
+    void shouldCountSubclassWritesForTheEntity() {
+        EntityVersions versions = new EntityVersions();
+
+        versions.changed(new H2User() {}.getClass());
+
+        assertEquals(1, versions.get(H2User.class));
+        assertEquals(0, versions.get(Object.class));
+    }
+
+    @Test
+    @Order(14)
+    void shouldFailNullEntityWithoutCountingWrite() {
+        EntityVersions versions = client.getEntityVersions();
+        long before = versions.get(H2User.class);
+
+        assertThrows(NullPointerException.class, () -> client.save(null));
+        assertThrows(NullPointerException.class, () -> client.updateById(null));
+        assertEquals(before, versions.get(H2User.class));
+    }
+
 }
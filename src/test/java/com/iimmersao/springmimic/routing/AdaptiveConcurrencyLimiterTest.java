@@ -0,0 +1,74 @@
+package com.iimmersao.springmimic.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings(value = "unused")
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(10);
+
+    // Acquires up to the current limit, then releases every slot as if each request took rttNanos
+    private void saturate(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+        int limit = limiter.getLimit();
+        for (int i = 0; i < limit; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        for (int i = 0; i < limit; i++) {
+            limiter.release(System.nanoTime() - rttNanos);
+        }
+    }
+
+    @Test
+    void shouldRejectOnceLimitIsReached() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10, 1.5, 0.2);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(1, limiter.getRejectedCount());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void shouldGrowLimitWhileLatencyStaysLow() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 2, 100, 1.5, 0.2);
+
+        for (int round = 0; round < 5; round++) {
+            saturate(limiter, FAST);
+        }
+
+        assertTrue(limiter.getLimit() > 10, "limit was " + limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void shouldShrinkLimitWhenLatencyInflates() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 50, 2, 100, 1.5, 0.2);
+        saturate(limiter, FAST);
+        int before = limiter.getLimit();
+
+        for (int round = 0; round < 5; round++) {
+            saturate(limiter, SLOW);
+        }
+
+        assertTrue(limiter.getLimit() < before, "limit went from " + before + " to " + limiter.getLimit());
+        assertTrue(limiter.getLimit() >= 2);
+    }
+
+    @Test
+    void shouldNotGrowWhenTrafficDoesNotUseTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 20, 2, 100, 1.5, 0.2);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(System.nanoTime() - FAST);
+        }
+
+        assertEquals(20, limiter.getLimit());
+    }
+}
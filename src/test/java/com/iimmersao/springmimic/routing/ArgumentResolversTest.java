@@ -0,0 +1,160 @@
+package com.iimmersao.springmimic.routing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iimmersao.springmimic.annotations.PathVariable;
+import com.iimmersao.springmimic.annotations.RequestParam;
+import com.iimmersao.springmimic.core.ApplicationContext;
+import com.iimmersao.springmimic.core.TypeConverterRegistry;
+import com.iimmersao.springmimic.web.PageRequest;
+import fi.iki.elonen.NanoHTTPD;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings(value = "unused")
+class ArgumentResolversTest {
+
+    private final TypeConverterRegistry converters = new TypeConverterRegistry();
+
+    public static class TestController {
+
+        public String find(@PathVariable("id") int id, @RequestParam("q") String query, PageRequest page,
+                           NanoHTTPD.IHTTPSession session, String unannotated) {
+            return "";
+        }
+
+        public String list(@RequestParam("tag") List<Integer> tags, PageRequest page) {
+            return "";
+        }
+    }
+
+    private static NanoHTTPD.IHTTPSession createSession(String method, String query, String body) {
+        NanoHTTPD.IHTTPSession session = mock(NanoHTTPD.IHTTPSession.class);
+        when(session.getMethod()).thenReturn(NanoHTTPD.Method.valueOf(method));
+        when(session.getQueryParameterString()).thenReturn(query);
+        Map<String, String> headers = new HashMap<>();
+        if (body != null) {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            headers.put("content-length", String.valueOf(bytes.length));
+            headers.put("content-type", "application/json");
+            when(session.getInputStream()).thenReturn(new ByteArrayInputStream(bytes));
+        }
+        when(session.getHeaders()).thenReturn(headers);
+        return session;
+    }
+
+    private static RequestContext createRequest(String query, String... pathValues) {
+        return new RequestContext(createSession("GET", query, null), pathValues);
+    }
+
+    @Test
+    void shouldResolvePathVariableByPosition() throws Exception {
+        ArgumentResolver resolver = ArgumentResolvers.pathVariable("id", 1, int.class, converters.converterFor(int.class));
+
+        assertEquals(42, resolver.resolve(createRequest(null, "orders", "42")));
+        IllegalArgumentException invalid = assertThrows(IllegalArgumentException.class,
+                () -> resolver.resolve(createRequest(null, "orders", "abc")));
+        assertTrue(invalid.getMessage().contains("'id'"));
+
+        ArgumentResolver unknown = ArgumentResolvers.pathVariable("id", -1, int.class, converters.converterFor(int.class));
+        assertThrows(IllegalArgumentException.class, () -> unknown.resolve(createRequest(null, "orders", "42")));
+    }
+
+    @Test
+    void shouldResolveRequestParamAndTreatMissingObjectAsOptional() throws Exception {
+        ArgumentResolver boxed = ArgumentResolvers.requestParam("limit", Integer.class,
+                converters.converterFor(Integer.class));
+        ArgumentResolver primitive = ArgumentResolvers.requestParam("limit", int.class,
+                converters.converterFor(int.class));
+
+        assertEquals(10, boxed.resolve(createRequest("limit=10&limit=20")));
+        assertNull(boxed.resolve(createRequest("other=1")));
+        assertThrows(IllegalArgumentException.class, () -> primitive.resolve(createRequest("other=1")));
+        assertThrows(IllegalArgumentException.class, () -> primitive.resolve(createRequest("limit=ten")));
+    }
+
+    @Test
+    void shouldResolveEveryValueOfRepeatedRequestParam() throws Exception {
+        ArgumentResolver resolver = ArgumentResolvers.requestParamList("tag", Integer.class,
+                converters.converterFor(Integer.class));
+
+        assertEquals(List.of(1, 2, 3), resolver.resolve(createRequest("tag=1&tag=2&tag=3")));
+        assertEquals(List.of(), resolver.resolve(createRequest(null)));
+    }
+
+    @Test
+    void shouldReadRequestBodyAsJson() throws Exception {
+        ArgumentResolver resolver = ArgumentResolvers.requestBody(new ObjectMapper().readerFor(Map.class), Map.of());
+
+        RequestContext request = new RequestContext(createSession("POST", null, "{\"name\":\"Ada\"}"),
+                RouteMatch.NO_VALUES);
+        assertEquals(Map.of("name", "Ada"), resolver.resolve(request));
+
+        RequestContext blank = new RequestContext(createSession("POST", null, "  "), RouteMatch.NO_VALUES);
+        assertThrows(IllegalArgumentException.class, () -> resolver.resolve(blank));
+        RequestContext missing = new RequestContext(createSession("POST", null, null), RouteMatch.NO_VALUES);
+        assertThrows(IllegalArgumentException.class, () -> resolver.resolve(missing));
+    }
+
+    @Test
+    void shouldResolveSessionAndPageRequest() throws Exception {
+        RequestContext request = createRequest("page=2&size=5&sort=name,desc&size=50");
+
+        assertSame(request.session(), ArgumentResolvers.session().resolve(request));
+        PageRequest page = (PageRequest) ArgumentResolvers.pageRequest().resolve(request);
+        assertEquals(2, page.getPage());
+        assertEquals(5, page.getSize());
+        assertEquals("name,desc", page.getSortBy());
+
+        PageRequest defaults = (PageRequest) ArgumentResolvers.pageRequest().resolve(createRequest("page=x"));
+        assertEquals(new PageRequest().getPage(), defaults.getPage());
+        assertEquals(new PageRequest().getSize(), defaults.getSize());
+    }
+
+    @Test
+    void shouldResolveUnannotatedParameterToNull() throws Exception {
+        assertNull(ArgumentResolvers.none().resolve(createRequest("unannotated=1")));
+    }
+
+    @Test
+    void shouldPlanOneResolverPerParameter() throws Exception {
+        RouteHandlerFactory factory = new RouteHandlerFactory(new ApplicationContext("com.iimmersao.springmimic"));
+        Method find = TestController.class.getMethod("find", int.class, String.class, PageRequest.class,
+                NanoHTTPD.IHTTPSession.class, String.class);
+
+        HandlerPlan plan = factory.createPlan("GET", "/users/{name}/orders/{id}", find, true);
+
+        ArgumentResolver[] resolvers = plan.resolvers();
+        assertEquals(5, resolvers.length);
+        assertSame(ArgumentResolvers.session(), resolvers[3]);
+        assertSame(ArgumentResolvers.none(), resolvers[4]);
+        assertTrue(plan.handlesRawBody());
+
+        RequestContext request = createRequest("q=shoes&page=3", "ada", "7");
+        assertEquals(7, resolvers[0].resolve(request));
+        assertEquals("shoes", resolvers[1].resolve(request));
+        assertEquals(3, ((PageRequest) resolvers[2].resolve(request)).getPage());
+        assertSame(request.session(), resolvers[3].resolve(request));
+        assertNull(resolvers[4].resolve(request));
+    }
+
+    @Test
+    void shouldPlanListParameterWithoutRawBody() throws Exception {
+        RouteHandlerFactory factory = new RouteHandlerFactory(new ApplicationContext("com.iimmersao.springmimic"));
+        Method list = TestController.class.getMethod("list", List.class, PageRequest.class);
+
+        HandlerPlan plan = factory.createPlan("GET", "/orders", list, true);
+
+        assertFalse(plan.handlesRawBody());
+        assertEquals(List.of(4, 5), plan.resolvers()[0].resolve(createRequest("tag=4&tag=5")));
+    }
+}
@@ -0,0 +1,27 @@
+package com.iimmersao.springmimic.routing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings(value = "unused")
+class EntityTagsTest {
+
+    private final String etag = EntityTags.fromChecksum(42, 0xcafeL);
+
+    @Test
+    void shouldMatchIdentityGzipWeakAndWildcardTags() {
+        assertEquals("\"2a-cafe\"", etag);
+        assertTrue(EntityTags.matches("\"2a-cafe\"", etag));
+        assertTrue(EntityTags.matches("\"other\", W/\"2a-cafe\"", etag));
+        assertTrue(EntityTags.matches("\"2a-cafe-gz\"", etag));
+        assertTrue(EntityTags.matches("*", etag));
+    }
+
+    @Test
+    void shouldNotMatchOtherTags() {
+        assertFalse(EntityTags.matches("\"2a-cafd\"", etag));
+        assertFalse(EntityTags.matches(null, etag));
+        assertFalse(EntityTags.matches("\"2a-cafe\"", null));
+    }
+}
@@ -0,0 +1,47 @@
+package com.iimmersao.springmimic.routing;
+
+import com.iimmersao.springmimic.database.EntityVersions;
+import com.iimmersao.springmimic.security.UserDetails;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings(value = "unused")
+class EntityVersionTagTest {
+
+    private final EntityVersions versions = new EntityVersions();
+    private final EntityVersionTag tag = new EntityVersionTag(versions, new Class<?>[]{String.class, Integer.class});
+
+    @Test
+    void shouldChangeWhenAnyEntityTypeIsWritten() {
+        String initial = tag.current(null, null);
+        assertEquals(initial, tag.current(null, null));
+
+        versions.changed(Long.class);
+        assertEquals(initial, tag.current(null, null));
+
+        versions.changed(Integer.class);
+        String afterWrite = tag.current(null, null);
+        assertNotEquals(initial, afterWrite);
+        assertTrue(EntityTags.matches(afterWrite, tag.current(null, null)));
+    }
+
+    @Test
+    void shouldDifferPerFormatAndUser() {
+        UserDetails alice = new UserDetails("alice", Set.of("ROLE_USER"));
+        UserDetails bob = new UserDetails("bob", Set.of("ROLE_USER"));
+
+        String json = tag.current(null, null);
+        assertNotEquals(json, tag.current(null, "application/cbor"));
+        assertNotEquals(tag.current(alice, null), tag.current(bob, null));
+        assertNotEquals(json, tag.current(alice, null));
+    }
+
+    @Test
+    void shouldNotMatchTagsFromAnotherRun() {
+        EntityVersionTag restarted = new EntityVersionTag(new EntityVersions(), tag.entities());
+        assertFalse(EntityTags.matches(tag.current(null, null), restarted.current(null, null)));
+    }
+}
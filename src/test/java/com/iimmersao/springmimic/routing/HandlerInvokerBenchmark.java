@@ -0,0 +1,72 @@
+package com.iimmersao.springmimic.routing;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reflective controller invocation with the bound MethodHandle invoker
+ * that RouteHandlerFactory now generates.
+ * <p>
+ * Run after {@code mvn test-compile} with:
+ * <pre>
+ * mvn exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.iimmersao.springmimic.routing.HandlerInvokerBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings(value = "unused")
+public class HandlerInvokerBenchmark {
+
+    public static class BenchmarkController {
+        public String getUser(String id, boolean verbose) {
+            return verbose ? id : "user";
+        }
+    }
+
+    private Object[] args;
+    private Method method;
+    private BenchmarkController controller;
+    private HandlerInvoker reflective;
+    private HandlerInvoker methodHandle;
+
+    @Setup
+    public void setUp() throws Exception {
+        controller = new BenchmarkController();
+        method = BenchmarkController.class.getMethod("getUser", String.class, boolean.class);
+        args = new Object[] {"abc123", Boolean.TRUE};
+        reflective = HandlerInvoker.ReflectiveInvoker.create(controller, method);
+        methodHandle = HandlerInvoker.MethodHandleInvoker.create(controller, method);
+    }
+
+    @Benchmark
+    public Object methodInvoke() throws Exception {
+        // What RouteHandler did before: plain Method.invoke without setAccessible
+        return method.invoke(controller, args);
+    }
+
+    @Benchmark
+    public Object reflectiveInvoker() throws Exception {
+        return reflective.invoke(args);
+    }
+
+    @Benchmark
+    public Object methodHandleInvoker() throws Exception {
+        return methodHandle.invoke(args);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HandlerInvokerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,55 @@
+package com.iimmersao.springmimic.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings(value = "unused")
+public class HandlerInvokerTest {
+
+    public static class PublicController {
+        public String greet(String name, int times) {
+            return ("Hello " + name + " ").repeat(times).trim();
+        }
+
+        public String fail() {
+            throw new IllegalArgumentException("bad input");
+        }
+    }
+
+    static class PackagePrivateController {
+        String greet(String name) {
+            return "Hi " + name;
+        }
+    }
+
+    @Test
+    void shouldUseMethodHandleForPublicMethod() throws Exception {
+        Method method = PublicController.class.getMethod("greet", String.class, int.class);
+        HandlerInvoker invoker = HandlerInvoker.create(new PublicController(), method);
+
+        assertInstanceOf(HandlerInvoker.MethodHandleInvoker.class, invoker);
+        assertEquals("Hello Bob Hello Bob", invoker.invoke(new Object[] {"Bob", 2}));
+    }
+
+    @Test
+    void shouldFallBackToReflectionForNonPublicMethod() throws Exception {
+        Method method = PackagePrivateController.class.getDeclaredMethod("greet", String.class);
+        HandlerInvoker invoker = HandlerInvoker.create(new PackagePrivateController(), method);
+
+        assertInstanceOf(HandlerInvoker.ReflectiveInvoker.class, invoker);
+        assertEquals("Hi Ann", invoker.invoke(new Object[] {"Ann"}));
+    }
+
+    @Test
+    void shouldPropagateControllerExceptionUnwrapped() throws Exception {
+        Method method = PublicController.class.getMethod("fail");
+        HandlerInvoker handleInvoker = HandlerInvoker.create(new PublicController(), method);
+        HandlerInvoker reflectiveInvoker = HandlerInvoker.ReflectiveInvoker.create(new PublicController(), method);
+
+        assertThrows(IllegalArgumentException.class, () -> handleInvoker.invoke(new Object[0]));
+        assertThrows(IllegalArgumentException.class, () -> reflectiveInvoker.invoke(new Object[0]));
+    }
+}
@@ -0,0 +1,58 @@
+package com.iimmersao.springmimic.routing;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the split-and-map query parsing RequestContext used to do with the index-based
+ * QueryString, for a route reading three of the parameters of a typical query.
+ * <p>
+ * Run after {@code mvn test-compile} with:
+ * <pre>
+ * mvn exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.iimmersao.springmimic.routing.QueryStringBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings(value = "unused")
+public class QueryStringBenchmark {
+
+    @Param({"page=2&size=20&sort=name&q=caf%C3%A9&filter=active&lang=en&utm_source=mail"})
+    private String query;
+
+    @Benchmark
+    public String splitIntoMap() {
+        // What RequestContext did before: split every pair into a map, values left encoded
+        Map<String, List<String>> params = new HashMap<>();
+        for (String pair : query.split("&")) {
+            String[] kv = pair.split("=", 2);
+            params.computeIfAbsent(kv[0], k -> new ArrayList<>()).add(kv.length > 1 ? kv[1] : "");
+        }
+        return params.get("page").getFirst() + params.get("size").getFirst() + params.get("sort").getFirst();
+    }
+
+    @Benchmark
+    public String indexedQueryString() {
+        QueryString parsed = new QueryString(query);
+        return parsed.first("page") + parsed.first("size") + parsed.first("sort");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(QueryStringBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
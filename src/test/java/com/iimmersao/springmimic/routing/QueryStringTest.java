@@ -0,0 +1,74 @@
+package com.iimmersao.springmimic.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings(value = "unused")
+class QueryStringTest {
+
+    @Test
+    void shouldFindFirstValueOfEachName() {
+        QueryString query = new QueryString("page=2&size=10&page=3&flag&empty=");
+
+        assertEquals("2", query.first("page"));
+        assertEquals("10", query.first("size"));
+        assertEquals("", query.first("flag"));
+        assertEquals("", query.first("empty"));
+        assertNull(query.first("sort"));
+        assertNull(query.first("pag"));
+    }
+
+    @Test
+    void shouldPercentDecodeValuesAndKeys() {
+        QueryString query = new QueryString("q=caf%C3%A9+au+lait&a%20b=x%3Dy%26z&name=%E2%82%AC5");
+
+        assertEquals("café au lait", query.first("q"));
+        assertEquals("x=y&z", query.first("a b"));
+        assertEquals("€5", query.first("name"));
+    }
+
+    @Test
+    void shouldKeepEqualsSignsInValuesAndSkipEmptyPairs() {
+        QueryString query = new QueryString("&&filter=a=b&&sort=name&");
+
+        assertEquals("a=b", query.first("filter"));
+        assertEquals("name", query.first("sort"));
+    }
+
+    @Test
+    void shouldCollectEveryValueOfRepeatedName() {
+        QueryString query = new QueryString("tag=a&x=1&tag=b+c&tag");
+
+        assertEquals(List.of("a", "b c", ""), query.all("tag"));
+        assertEquals(List.of(), query.all("missing"));
+    }
+
+    @Test
+    void shouldHandleMissingQueryString() {
+        assertNull(new QueryString(null).first("page"));
+        assertNull(new QueryString("").first("page"));
+    }
+
+    @Test
+    void shouldIndexManyPairs() {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            raw.append("k").append(i).append('=').append(i).append('&');
+        }
+        QueryString query = new QueryString(raw.toString());
+
+        assertEquals("0", query.first("k0"));
+        assertEquals("49", query.first("k49"));
+    }
+
+    @Test
+    void shouldRejectMalformedEscapes() {
+        assertThrows(IllegalArgumentException.class, () -> new QueryString("q=%4").first("q"));
+        assertThrows(IllegalArgumentException.class, () -> new QueryString("q=%zz").first("q"));
+        // Values that are not looked up are never decoded
+        assertEquals("1", new QueryString("bad=%zz&q=1").first("q"));
+    }
+}
@@ -0,0 +1,138 @@
+package com.iimmersao.springmimic.routing;
+
+import fi.iki.elonen.NanoHTTPD;
+import fi.iki.elonen.NanoHTTPD.Response;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings(value = "unused")
+class RequestCoalescerTest {
+
+    private static final long TIMEOUT = TimeUnit.SECONDS.toNanos(5);
+
+    private final RequestCoalescer coalescer = new RequestCoalescer(1024);
+    private final AtomicInteger calls = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    // A call that blocks until released, so that followers arrive while it is in flight
+    private Response slowCall() throws InterruptedException {
+        calls.incrementAndGet();
+        release.await();
+        return NanoHTTPD.newFixedLengthResponse(Response.Status.OK, "application/json", "{\"id\":1}");
+    }
+
+    private CompletableFuture<Response> startLeader(String key) throws Exception {
+        CompletableFuture<Response> leader = CompletableFuture.supplyAsync(() -> {
+            try {
+                return coalescer.execute(key, TIMEOUT, this::slowCall);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (coalescer.getInFlight() == 0) {
+            Thread.sleep(5);
+        }
+        return leader;
+    }
+
+    private static String body(Response response) throws Exception {
+        return new String(response.getData().readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void shouldShareLeaderResponseWithFollowers() throws Exception {
+        CompletableFuture<Response> leader = startLeader("k");
+        CompletableFuture<Response> follower = CompletableFuture.supplyAsync(() -> {
+            try {
+                return coalescer.execute("k", TIMEOUT, this::slowCall);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (coalescer.getCoalesced() == 0) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        assertEquals("{\"id\":1}", body(leader.get(5, TimeUnit.SECONDS)));
+        assertEquals("{\"id\":1}", body(follower.get(5, TimeUnit.SECONDS)));
+        assertEquals(1, calls.get());
+        assertEquals(0, coalescer.getInFlight());
+    }
+
+    @Test
+    void shouldNotCoalesceDifferentKeys() throws Exception {
+        CompletableFuture<Response> leader = startLeader("alice");
+        Response other = coalescer.execute("bob", TIMEOUT,
+                () -> NanoHTTPD.newFixedLengthResponse(Response.Status.OK, "text/plain", "bob"));
+        release.countDown();
+
+        assertEquals("bob", body(other));
+        assertEquals(0, coalescer.getCoalesced());
+        leader.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldAnswer503WhenFollowerTimesOut() throws Exception {
+        CompletableFuture<Response> leader = startLeader("k");
+
+        Response follower = coalescer.execute("k", TimeUnit.MILLISECONDS.toNanos(20), this::slowCall);
+        release.countDown();
+
+        assertEquals(Response.Status.SERVICE_UNAVAILABLE, follower.getStatus());
+        assertEquals(1, coalescer.getTimeouts());
+        leader.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldLetFollowersRunThemselvesWhenResponseIsStreamed() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Response> leader = CompletableFuture.supplyAsync(() -> {
+            try {
+                return coalescer.execute("k", TIMEOUT, () -> {
+                    started.countDown();
+                    release.await();
+                    return NanoHTTPD.newChunkedResponse(Response.Status.OK, "application/json",
+                            new BufferedInputStream(new ByteArrayInputStream(new byte[4])));
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        started.await();
+        CompletableFuture<Response> follower = CompletableFuture.supplyAsync(() -> {
+            try {
+                return coalescer.execute("k", TIMEOUT,
+                        () -> NanoHTTPD.newFixedLengthResponse(Response.Status.OK, "text/plain", "own"));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (coalescer.getCoalesced() == 0) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        assertEquals("own", body(follower.get(5, TimeUnit.SECONDS)));
+        leader.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldKeepOrderOfRepeatedParameterValuesInKey() {
+        String key = RequestCoalescer.key("/films", null, null, "/films", "tag=2&sort=name&tag=1");
+
+        assertEquals(key, RequestCoalescer.key("/films", null, null, "/films", "sort=name&tag=2&tag=1"));
+        assertNotEquals(key, RequestCoalescer.key("/films", null, null, "/films", "tag=1&sort=name&tag=2"));
+        assertNotEquals(RequestCoalescer.key("/films", "ada", null, "/films", null),
+                RequestCoalescer.key("/films", "bob", null, "/films", null));
+    }
+}
@@ -0,0 +1,70 @@
+package com.iimmersao.springmimic.routing;
+
+import com.iimmersao.springmimic.exceptions.PayloadTooLargeException;
+import fi.iki.elonen.NanoHTTPD;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings(value = "unused")
+public class RequestContextTest {
+
+    // The connection's stream holds this request's body followed by the next request
+    private InputStream connection;
+
+    private RequestContext createRequest(String method, String body, String nextRequest) {
+        NanoHTTPD.IHTTPSession session = mock(NanoHTTPD.IHTTPSession.class);
+        when(session.getMethod()).thenReturn(NanoHTTPD.Method.valueOf(method));
+        when(session.getHeaders()).thenReturn(Map.of("content-length",
+                String.valueOf(body.getBytes(StandardCharsets.UTF_8).length)));
+        connection = new ByteArrayInputStream((body + nextRequest).getBytes(StandardCharsets.UTF_8));
+        when(session.getInputStream()).thenReturn(connection);
+        return new RequestContext(session, RouteMatch.NO_VALUES);
+    }
+
+    @Test
+    void shouldLimitBodyToContentLength() throws Exception {
+        RequestContext request = createRequest("POST", "{\"a\":1}", "GET /next HTTP/1.1");
+
+        assertEquals("{\"a\":1}", new String(request.body().readAllBytes(), StandardCharsets.UTF_8));
+        assertEquals("GET /next HTTP/1.1", new String(connection.readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldDiscardUnreadBodySoNextRequestStartsCleanly() throws Exception {
+        RequestContext request = createRequest("POST", "unused body", "GET /next HTTP/1.1");
+
+        assertTrue(request.discardUnreadBody());
+        assertEquals("GET /next HTTP/1.1", new String(connection.readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldAskToCloseConnectionRatherThanDiscardLargeBody() throws Exception {
+        RequestContext request = createRequest("PUT", "x".repeat((int) RequestContext.MAX_DISCARD_BYTES + 1), "");
+
+        assertFalse(request.discardUnreadBody());
+    }
+
+    @Test
+    void shouldRejectOversizedBodyBeforeReadingIt() throws Exception {
+        RequestContext request = createRequest("POST", "x".repeat(100), "");
+
+        assertThrows(PayloadTooLargeException.class, () -> request.checkBodySize(99));
+        assertDoesNotThrow(() -> request.checkBodySize(100));
+        assertDoesNotThrow(() -> request.checkBodySize(0));
+        assertEquals(100, connection.available());
+    }
+
+    @Test
+    void shouldIgnoreBodyOfGetRequest() {
+        RequestContext request = createRequest("GET", "ignored", "");
+        assertNull(request.body());
+    }
+}
@@ -0,0 +1,186 @@
+package com.iimmersao.springmimic.routing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iimmersao.springmimic.core.CodecRegistry;
+import com.iimmersao.springmimic.web.EventStream;
+import com.iimmersao.springmimic.web.ServerSentEvent;
+import fi.iki.elonen.NanoHTTPD.Response;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings(value = "unused")
+public class ResponseBodyWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CodecRegistry codecs = new CodecRegistry();
+    private final BufferPool buffers = new BufferPool(4, 64 * 1024);
+    private final ResponseBodyWriter writer = new ResponseBodyWriter(codecs, 10, buffers);
+
+    private static String body(Response response) throws Exception {
+        try (InputStream in = response.getData()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void shouldSendSmallPayloadFromPooledBuffer() throws Exception {
+        Response response = writer.write(Map.of("name", "Alice"), "application/json", null);
+
+        assertNull(response.getHeader("Transfer-Encoding"));
+        assertEquals("{\"name\":\"Alice\"}", body(response));
+        assertEquals(1, buffers.getPooledCount());
+
+        // The released buffer is reused for the next body
+        Response next = writer.write(List.of(1, 2, 3), "application/json", null);
+        assertEquals(0, buffers.getPooledCount());
+        assertEquals("[1,2,3]", body(next));
+    }
+
+    @Test
+    void shouldStreamLargeCollectionAsJsonArray() throws Exception {
+        List<Map<String, Object>> users = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            users.add(Map.of("id", i, "name", "user" + i));
+        }
+
+        Response response = writer.write(users, "application/json", null);
+
+        assertInstanceOf(JsonArrayInputStream.class, response.getData());
+        assertEquals(objectMapper.writeValueAsString(users), body(response));
+    }
+
+    @Test
+    void shouldStreamEmptyAndNullElementsCorrectly() throws Exception {
+        List<String> withNulls = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            withNulls.add(i % 3 == 0 ? null : "v" + i);
+        }
+        assertEquals(objectMapper.writeValueAsString(withNulls), body(writer.write(withNulls, "application/json", null)));
+
+        ResponseBodyWriter alwaysStream = new ResponseBodyWriter(codecs, 0, buffers);
+        assertEquals("[]", body(alwaysStream.write(List.of(), "application/json", null)));
+    }
+
+    @Test
+    void shouldKeepXmlAndPlainTextBuffered() throws Exception {
+        assertEquals("hello", body(writer.write("hello", "text/plain", null)));
+
+        Response xml = writer.write(Map.of("name", "Bob"), "application/xml", null);
+        assertTrue(body(xml).contains("<name>Bob</name>"));
+    }
+
+    @Test
+    void shouldComputeEtagFromSerializedBody() throws Exception {
+        Response first = writer.write(Map.of("name", "Alice"), "application/json", null, true);
+        Response same = writer.write(Map.of("name", "Alice"), "application/json", null, true);
+        Response other = writer.write(Map.of("name", "Alicf"), "application/json", null, true);
+
+        assertNotNull(first.getHeader("ETag"));
+        assertEquals(first.getHeader("ETag"), same.getHeader("ETag"));
+        assertNotEquals(first.getHeader("ETag"), other.getHeader("ETag"));
+        assertEquals("{\"name\":\"Alice\"}", body(first));
+        assertNotNull(writer.write("hello", "text/plain", null, true).getHeader("ETag"));
+    }
+
+    @Test
+    void shouldNotSendEtagForStreamedBody() throws Exception {
+        List<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            numbers.add(i);
+        }
+
+        assertNull(writer.write(numbers, "application/json", null, true).getHeader("ETag"));
+    }
+
+    @Test
+    void shouldWriteStreamAsJsonArrayAndCloseIt() throws Exception {
+        AtomicInteger closed = new AtomicInteger();
+        Stream<Map<String, Object>> users = IntStream.range(0, 5000)
+                .mapToObj(i -> Map.<String, Object>of("id", i))
+                .onClose(closed::incrementAndGet);
+
+        Response response = writer.writeSequence(users, "application/json", codecs.jsonWriter(), false);
+
+        assertEquals(0, closed.get());
+        String json = body(response);
+        assertEquals(5000, objectMapper.readTree(json).size());
+        assertEquals("{\"id\":4999}", objectMapper.readTree(json).get(4999).toString());
+        assertEquals(1, closed.get());
+    }
+
+    @Test
+    void shouldWriteNewlineDelimitedJson() throws Exception {
+        Iterator<Map<String, Object>> users = List.<Map<String, Object>>of(Map.of("id", 1), Map.of("id", 2)).iterator();
+
+        Response response = writer.writeSequence(users, CodecRegistry.NDJSON, codecs.jsonWriter(), true);
+
+        assertEquals("{\"id\":1}\n{\"id\":2}\n", body(response));
+        assertEquals("", body(writer.writeSequence(Stream.empty(), CodecRegistry.NDJSON, codecs.jsonWriter(), true)));
+        assertEquals("[]", body(writer.writeSequence(null, "application/json", codecs.jsonWriter(), false)));
+    }
+
+    @Test
+    void shouldCloseStreamWhenBodyIsAbandoned() throws Exception {
+        AtomicInteger closed = new AtomicInteger();
+        Stream<Integer> endless = Stream.iterate(0, i -> i + 1).onClose(closed::incrementAndGet);
+
+        Response response = writer.writeSequence(endless, "application/json", codecs.jsonWriter(), false);
+        InputStream data = response.getData();
+        assertTrue(data.read(new byte[100]) > 0);
+        data.close();
+        data.close();
+
+        assertEquals(1, closed.get());
+    }
+
+    @Test
+    void shouldFailUncheckedWhenElementCannotBeWritten() throws Exception {
+        Stream<Object> elements = Stream.of("ok", new Object());
+
+        Response response = writer.writeSequence(elements, "application/json", codecs.jsonWriter(), false);
+
+        assertThrows(UncheckedIOException.class, () -> body(response));
+    }
+
+    @Test
+    void shouldWriteEventsUntilStreamIsClosed() throws Exception {
+        EventStream events = new EventStream(8);
+        events.send(new ServerSentEvent("order", "7", Map.of("id", 7)));
+        events.send("first line\nsecond line");
+        events.close();
+
+        Response response = writer.writeEvents(events);
+
+        assertEquals("text/event-stream", response.getMimeType());
+        assertEquals("no-cache", response.getHeader("Cache-Control"));
+        assertEquals("id: 7\nevent: order\ndata: {\"id\":7}\n\n"
+                + "data: first line\ndata: second line\n\n", body(response));
+    }
+
+    @Test
+    void shouldSendHeartbeatWhileIdleAndCloseStreamWithResponse() throws Exception {
+        EventStream events = new EventStream(8);
+        ResponseBodyWriter heartbeats = new ResponseBodyWriter(codecs, 10, buffers, 1_000_000);
+
+        InputStream data = heartbeats.writeEvents(events).getData();
+        byte[] buffer = new byte[64];
+        int read = data.read(buffer);
+
+        assertEquals(":\n\n", new String(buffer, 0, read, StandardCharsets.UTF_8));
+        data.close();
+        assertFalse(events.isOpen());
+        assertEquals(Response.Status.NO_CONTENT, writer.writeEvents(null).getStatus());
+    }
+}
@@ -0,0 +1,137 @@
+package com.iimmersao.springmimic.routing;
+
+import fi.iki.elonen.NanoHTTPD;
+import fi.iki.elonen.NanoHTTPD.Response;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings(value = "unused")
+class ResponseCacheTest {
+
+    private static final long TTL = TimeUnit.SECONDS.toNanos(60);
+
+    private static Response json(String body) {
+        Response response = NanoHTTPD.newFixedLengthResponse(Response.Status.OK, "application/json", body);
+        response.addHeader("Vary", "Accept");
+        return response;
+    }
+
+    private static String body(Response response) throws Exception {
+        return new String(response.getData().readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void shouldReplayBodyAndHeadersOnHit() throws Exception {
+        ResponseCache cache = new ResponseCache(1024, 1024);
+        assertNull(cache.get("k"));
+
+        Response sent = cache.put("k", "/films/{id}", json("{\"id\":1}"), TTL, cache.generation());
+        Response cached = cache.get("k");
+
+        assertEquals("{\"id\":1}", body(sent));
+        assertEquals("{\"id\":1}", body(cached));
+        assertEquals("application/json", cached.getMimeType());
+        assertEquals("Accept", cached.getHeader("Vary"));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void shouldNotCacheErrorsOrStreamedBodies() throws Exception {
+        ResponseCache cache = new ResponseCache(1024, 1024);
+        cache.put("error", "/r", NanoHTTPD.newFixedLengthResponse(Response.Status.NOT_FOUND, "text/plain", "x"), TTL, cache.generation());
+        cache.put("stream", "/r", NanoHTTPD.newChunkedResponse(Response.Status.OK, "application/json",
+                new BufferedInputStream(new ByteArrayInputStream(new byte[10]))), TTL, cache.generation());
+
+        assertEquals(0, cache.getEntryCount());
+    }
+
+    @Test
+    void shouldExpireAfterTtl() throws Exception {
+        ResponseCache cache = new ResponseCache(1024, 1024);
+        cache.put("k", "/r", json("1"), TimeUnit.MILLISECONDS.toNanos(20), cache.generation());
+
+        Thread.sleep(50);
+
+        assertNull(cache.get("k"));
+        assertEquals(0, cache.getCachedBytes());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedBeyondMaxBytes() throws Exception {
+        ResponseCache cache = new ResponseCache(10, 10);
+        cache.put("a", "/r", json("aaaa"), TTL, cache.generation());
+        cache.put("b", "/r", json("bbbb"), TTL, cache.generation());
+        cache.get("a");
+        cache.put("c", "/r", json("cccc"), TTL, cache.generation());
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.getEvictions());
+        assertEquals(8, cache.getCachedBytes());
+    }
+
+    @Test
+    void shouldInvalidateByRoute() throws Exception {
+        ResponseCache cache = new ResponseCache(1024, 1024);
+        cache.put("a", "/films/{id}", json("1"), TTL, cache.generation());
+        cache.put("b", "/users", json("2"), TTL, cache.generation());
+
+        cache.invalidateRoute("/films/{id}");
+
+        assertNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+    }
+
+    @Test
+    void shouldNotCacheResponseComputedBeforeInvalidation() throws Exception {
+        ResponseCache cache = new ResponseCache(1024, 1024);
+        assertNull(cache.get("a"));
+        long generation = cache.generation();
+
+        // A write invalidates the route while the handler is still computing the old data
+        cache.invalidateRoute("/films/{id}");
+        Response sent = cache.put("a", "/films/{id}", json("old"), TTL, generation);
+        cache.put("b", "/users", json("2"), TTL, generation);
+
+        assertEquals("old", body(sent));
+        assertNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+
+        long beforeAll = cache.generation();
+        cache.invalidateAll();
+        cache.put("b", "/users", json("3"), TTL, beforeAll);
+        assertNull(cache.get("b"));
+        cache.put("a", "/films/{id}", json("new"), TTL, cache.generation());
+        assertEquals("new", body(cache.get("a")));
+    }
+
+    @Test
+    void shouldKeyOnEveryOccurrenceOfQueryParameter() {
+        ResponseCachePolicy policy = new ResponseCachePolicy(TTL, new String[]{"tag"}, false);
+
+        String both = policy.key("/films", request("tag=a&tag=b"), null, null);
+
+        assertNotEquals(policy.key("/films", request("tag=a"), null, null), both);
+        assertNotEquals(policy.key("/films", request("tag=a%7C1%3Ab"), null, null), both);
+        assertNotEquals(policy.key("/films", request(""), null, null), policy.key("/films", request("tag="), null, null));
+        assertEquals(both, policy.key("/films", request("other=1&tag=a&tag=b"), null, null));
+    }
+
+    private static RequestContext request(String query) {
+        NanoHTTPD.IHTTPSession session = mock(NanoHTTPD.IHTTPSession.class);
+        when(session.getMethod()).thenReturn(NanoHTTPD.Method.GET);
+        when(session.getHeaders()).thenReturn(Map.of());
+        when(session.getQueryParameterString()).thenReturn(query);
+        return new RequestContext(session, RouteMatch.NO_VALUES);
+    }
+}
@@ -1,10 +1,14 @@
 package com.iimmersao.springmimic.routing;
 
+import com.iimmersao.springmimic.annotations.AsyncTimeout;
+import com.iimmersao.springmimic.annotations.ETag;
 import com.iimmersao.springmimic.annotations.GetMapping;
 import com.iimmersao.springmimic.annotations.PathVariable;
 import com.iimmersao.springmimic.annotations.RequestBody;
 import com.iimmersao.springmimic.annotations.RequestParam;
+import com.iimmersao.springmimic.annotations.ResponseBody;
 import com.iimmersao.springmimic.core.ApplicationContext;
+import com.iimmersao.springmimic.core.ConfigLoader;
 import com.iimmersao.springmimic.openapi.MethodParameter;
 import com.iimmersao.springmimic.openapi.ParameterIntrospector;
 import fi.iki.elonen.NanoHTTPD;
@@ -14,11 +18,17 @@ import org.junit.jupiter.api.Test;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.lang.reflect.Method;
+import java.math.BigDecimal;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import java.lang.reflect.Field;
 
@@ -56,6 +66,50 @@ public class RouteHandlerTest {
             return "User ID: " + id + ", verbose=" + verbose;
         }
 
+        @GetMapping("/orders/{id}")
+        public String findOrders(@PathVariable("id") UUID id, @RequestParam("status") Status status,
+                                 @RequestParam("tag") List<Integer> tags, @RequestParam("since") LocalDate since,
+                                 @RequestParam("minTotal") BigDecimal minTotal) {
+            return id + " " + status + " " + tags + " " + since + " " + minTotal;
+        }
+
+        public CompletableFuture<String> greetLater(@RequestParam("name") String name) {
+            return CompletableFuture.supplyAsync(() -> "Hello, " + name);
+        }
+
+        @AsyncTimeout(millis = 50)
+        public CompletableFuture<String> neverComplete() {
+            return new CompletableFuture<>();
+        }
+
+        @AsyncTimeout(millis = 0)
+        public CompletableFuture<String> untimed() {
+            return CompletableFuture.completedFuture("done");
+        }
+
+        static final AtomicBoolean saved = new AtomicBoolean();
+
+        @ResponseBody
+        public Map<String, String> saveUser(@RequestBody User user) {
+            saved.set(true);
+            return Map.of("saved", user.name);
+        }
+
+        @ETag
+        @ResponseBody
+        public Map<String, String> taggedSave(@RequestBody User user) {
+            return Map.of("saved", user.name);
+        }
+
+        static final AtomicBoolean numbersClosed = new AtomicBoolean();
+
+        @ResponseBody
+        public Stream<Integer> numbers(@RequestParam("count") int count) {
+            return IntStream.range(0, count).boxed().onClose(() -> numbersClosed.set(true));
+        }
+
+        public enum Status { OPEN, SHIPPED }
+
         public static class User {
             public String id;
             public String name;
@@ -164,6 +218,143 @@ public class RouteHandlerTest {
         assertEquals(Response.Status.BAD_REQUEST.getRequestStatus(), response.getStatus().getRequestStatus());
     }
 
+    @Test
+    void shouldConvertParametersWithRegisteredConverters() throws Exception {
+        String id = "3f2504e0-4f89-11d3-9a0c-0305e82c3301";
+        NanoHTTPD.IHTTPSession session = createMockSession("GET", "/orders/" + id, null,
+                "status=shipped&tag=1&tag=2&since=2024-02-29&minTotal=9.99");
+
+        TestController controller = new TestController();
+        Method method = controller.getClass().getMethod("findOrders", UUID.class, TestController.Status.class,
+                List.class, LocalDate.class, BigDecimal.class);
+        List<MethodParameter> params = ParameterIntrospector.extractParameters(method);
+        RouteHandler handler = routeHandlerFactory.create("GET", "/orders/{id}", controller, method, params);
+
+        Response response = handler.handle(session, matchUri("/orders/{id}", "/orders/" + id));
+
+        assertEquals(Response.Status.OK.getRequestStatus(), response.getStatus().getRequestStatus());
+        assertEquals(id + " SHIPPED [1, 2] 2024-02-29 9.99", extractResponseBody(response));
+    }
+
+    @Test
+    void shouldReturnBadRequestForUnconvertibleParam() throws Exception {
+        String id = "3f2504e0-4f89-11d3-9a0c-0305e82c3301";
+        NanoHTTPD.IHTTPSession session = createMockSession("GET", "/orders/" + id, null,
+                "status=lost&since=2024-02-29&minTotal=1");
+
+        TestController controller = new TestController();
+        Method method = controller.getClass().getMethod("findOrders", UUID.class, TestController.Status.class,
+                List.class, LocalDate.class, BigDecimal.class);
+        List<MethodParameter> params = ParameterIntrospector.extractParameters(method);
+        RouteHandler handler = routeHandlerFactory.create("GET", "/orders/{id}", controller, method, params);
+
+        Response response = handler.handle(session, matchUri("/orders/{id}", "/orders/" + id));
+
+        assertEquals(Response.Status.BAD_REQUEST.getRequestStatus(), response.getStatus().getRequestStatus());
+        assertTrue(extractResponseBody(response).contains("'status'"));
+    }
+
+    @Test
+    void shouldRespondWithValueOfReturnedFuture() throws Exception {
+        NanoHTTPD.IHTTPSession session = createMockSession("GET", "/greet", null, "name=Ada");
+
+        TestController controller = new TestController();
+        Method method = controller.getClass().getMethod("greetLater", String.class);
+        List<MethodParameter> params = ParameterIntrospector.extractParameters(method);
+        RouteHandler handler = routeHandlerFactory.create("GET", "/greet", controller, method, params);
+
+        Response response = handler.handle(session, RouteMatch.NO_VALUES);
+
+        assertEquals(Response.Status.OK.getRequestStatus(), response.getStatus().getRequestStatus());
+        assertEquals("Hello, Ada", extractResponseBody(response));
+    }
+
+    @Test
+    void shouldReturnServiceUnavailableWhenFutureTimesOut() throws Exception {
+        NanoHTTPD.IHTTPSession session = createMockSession("GET", "/never", null, null);
+
+        TestController controller = new TestController();
+        Method method = controller.getClass().getMethod("neverComplete");
+        RouteHandler handler = routeHandlerFactory.create("GET", "/never", controller, method, List.of());
+
+        Response response = handler.handle(session, RouteMatch.NO_VALUES);
+
+        assertEquals(Response.Status.SERVICE_UNAVAILABLE.getRequestStatus(), response.getStatus().getRequestStatus());
+    }
+
+    @Test
+    void shouldRejectFutureRouteWithoutPositiveTimeout() throws Exception {
+        TestController controller = new TestController();
+        Method untimed = controller.getClass().getMethod("untimed");
+        assertThrows(IllegalStateException.class,
+                () -> routeHandlerFactory.create("GET", "/untimed", controller, untimed, List.of()));
+
+        ConfigLoader noTimeout = new ConfigLoader() {
+            @Override
+            public long getLong(String key, long defaultValue) {
+                return key.equals("server.async.timeoutMillis") ? 0 : super.getLong(key, defaultValue);
+            }
+        };
+        RouteHandlerFactory factory = new RouteHandlerFactory(new ApplicationContext("com.iimmersao.springmimic"),
+                noTimeout);
+        Method greetLater = controller.getClass().getMethod("greetLater", String.class);
+        assertThrows(IllegalStateException.class, () -> factory.create("GET", "/greet", controller, greetLater,
+                ParameterIntrospector.extractParameters(greetLater)));
+    }
+
+    @Test
+    void shouldStreamReturnedStreamAsJsonArrayOrNdjson() throws Exception {
+        TestController controller = new TestController();
+        Method method = controller.getClass().getMethod("numbers", int.class);
+        List<MethodParameter> params = ParameterIntrospector.extractParameters(method);
+        RouteHandler handler = routeHandlerFactory.create("GET", "/numbers", controller, method, params);
+
+        TestController.numbersClosed.set(false);
+        Response array = handler.handle(createMockSession("GET", "/numbers", null, "count=3"), RouteMatch.NO_VALUES);
+        assertEquals("application/json", array.getMimeType());
+        assertEquals("[0,1,2]", extractResponseBody(array));
+        assertTrue(TestController.numbersClosed.get());
+
+        NanoHTTPD.IHTTPSession session = createMockSession("GET", "/numbers", null, "count=3");
+        when(session.getHeaders()).thenReturn(Map.of("accept", "application/x-ndjson"));
+        Response lines = handler.handle(session, RouteMatch.NO_VALUES);
+        assertEquals("application/x-ndjson", lines.getMimeType());
+        assertEquals("Accept", lines.getHeader("Vary"));
+        assertEquals("0\n1\n2\n", extractResponseBody(lines));
+    }
+
+    @Test
+    void shouldNotAnswerConditionalWriteWithNotModified() throws Exception {
+        ConfigLoader etagEnabled = new ConfigLoader() {
+            @Override
+            public boolean getBoolean(String key, boolean defaultValue) {
+                return key.equals("server.etag.enabled") || super.getBoolean(key, defaultValue);
+            }
+        };
+        RouteHandlerFactory factory = new RouteHandlerFactory(new ApplicationContext("com.iimmersao.springmimic"),
+                etagEnabled);
+        String json = "{\"id\": \"1\", \"name\": \"Alice\"}";
+        NanoHTTPD.IHTTPSession session = createMockSession("POST", "/users", json, null);
+        when(session.getHeaders()).thenReturn(Map.of("content-length", String.valueOf(json.length()),
+                "if-none-match", "*"));
+
+        TestController controller = new TestController();
+        Method method = controller.getClass().getMethod("saveUser", TestController.User.class);
+        List<MethodParameter> params = ParameterIntrospector.extractParameters(method);
+        RouteHandler handler = factory.create("POST", "/users", controller, method, params);
+
+        TestController.saved.set(false);
+        Response response = handler.handle(session, RouteMatch.NO_VALUES);
+
+        assertTrue(TestController.saved.get());
+        assertEquals(Response.Status.OK.getRequestStatus(), response.getStatus().getRequestStatus());
+        assertNull(response.getHeader("ETag"));
+
+        Method tagged = controller.getClass().getMethod("taggedSave", TestController.User.class);
+        assertThrows(IllegalStateException.class, () -> factory.create("POST", "/users", controller, tagged,
+                ParameterIntrospector.extractParameters(tagged)));
+    }
+
     @Test
     void shouldBindRequestBody() throws Exception {
         String json = "{\"id\": \"abc123\", \"name\": \"Alice\"}";
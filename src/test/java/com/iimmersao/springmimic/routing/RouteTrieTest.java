@@ -0,0 +1,103 @@
+package com.iimmersao.springmimic.routing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@SuppressWarnings(value = "unused")
+public class RouteTrieTest {
+
+    private RouteTrie trie;
+    private RouteHandler userById;
+    private RouteHandler currentUser;
+    private RouteHandler comment;
+    private RouteHandler file;
+    private RouteHandler root;
+
+    @BeforeEach
+    void setUp() {
+        trie = new RouteTrie();
+        userById = mock(RouteHandler.class);
+        currentUser = mock(RouteHandler.class);
+        comment = mock(RouteHandler.class);
+        file = mock(RouteHandler.class);
+        root = mock(RouteHandler.class);
+
+        trie.insert("/users/{id}", userById);
+        trie.insert("/users/me", currentUser);
+        trie.insert("/posts/{postId}/comments/{commentId}", comment);
+        trie.insert("/files/{name}.txt", file);
+        trie.insert("/", root);
+    }
+
+    @Test
+    void shouldPreferLiteralSegmentOverVariable() {
+        RouteMatch match = trie.find("/users/me");
+        assertNotNull(match);
+        assertSame(currentUser, match.getHandler());
+        assertEquals(0, match.getPathValues().length);
+    }
+
+    @Test
+    void shouldCaptureSingleVariable() {
+        RouteMatch match = trie.find("/users/abc123");
+        assertNotNull(match);
+        assertSame(userById, match.getHandler());
+        assertArrayEquals(new String[] {"abc123"}, match.getPathValues());
+    }
+
+    @Test
+    void shouldCaptureMultipleVariablesInTemplateOrder() {
+        RouteMatch match = trie.find("/posts/99/comments/123");
+        assertNotNull(match);
+        assertSame(comment, match.getHandler());
+        assertEquals(Map.of("postId", "99", "commentId", "123"), match.getPathVariables());
+    }
+
+    @Test
+    void shouldMatchMixedSegment() {
+        RouteMatch match = trie.find("/files/report.txt");
+        assertNotNull(match);
+        assertSame(file, match.getHandler());
+        assertArrayEquals(new String[] {"report"}, match.getPathValues());
+        assertNull(trie.find("/files/report.pdf"));
+    }
+
+    @Test
+    void shouldBacktrackFromLiteralToVariable() {
+        RouteHandler settings = mock(RouteHandler.class);
+        trie.insert("/users/{id}/settings", settings);
+
+        // "me" is a literal at this level, but only the variable branch continues to "settings"
+        RouteMatch match = trie.find("/users/me/settings");
+        assertNotNull(match);
+        assertSame(settings, match.getHandler());
+        assertArrayEquals(new String[] {"me"}, match.getPathValues());
+    }
+
+    @Test
+    void shouldMatchRootPath() {
+        RouteMatch match = trie.find("/");
+        assertNotNull(match);
+        assertSame(root, match.getHandler());
+    }
+
+    @Test
+    void shouldNotMatchEmptyOrExtraSegments() {
+        assertNull(trie.find("/users/"));
+        assertNull(trie.find("/users/abc/extra"));
+        assertNull(trie.find("/posts/99/comments"));
+        assertNull(trie.find("/unknown/path"));
+    }
+
+    @Test
+    void shouldKeepFirstRegistrationForDuplicateTemplate() {
+        RouteHandler duplicate = mock(RouteHandler.class);
+        assertFalse(trie.insert("/users/{userId}", duplicate));
+        assertSame(userById, trie.find("/users/42").getHandler());
+    }
+}
@@ -0,0 +1,71 @@
+package com.iimmersao.springmimic.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings(value = "unused")
+class CredentialCacheTest {
+
+    private static final String ADMIN = "Basic YWRtaW46YWRtaW4xMjM=";
+    private static final String USER = "Basic dXNlcjp1c2VyMTIz";
+
+    private final UserDetails admin = new UserDetails("admin", Set.of("ROLE_ADMIN"));
+    private final UserDetails user = new UserDetails("user", Set.of("ROLE_USER"));
+
+    @Test
+    void shouldReturnCachedUserForSameHeaderOnly() {
+        CredentialCache cache = new CredentialCache(60_000, 10);
+        cache.put(ADMIN, admin);
+
+        assertSame(admin, cache.get(ADMIN));
+        assertNull(cache.get(ADMIN + "x"));
+        assertNull(cache.get(USER));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void shouldExpireEntriesAfterTtl() throws Exception {
+        CredentialCache cache = new CredentialCache(20, 10);
+        cache.put(ADMIN, admin);
+
+        Thread.sleep(50);
+
+        assertNull(cache.get(ADMIN));
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedBeyondMaxEntries() {
+        CredentialCache cache = new CredentialCache(60_000, 1);
+        cache.put(ADMIN, admin);
+        cache.put(USER, user);
+
+        assertEquals(1, cache.getEntryCount());
+        assertNull(cache.get(ADMIN));
+        assertSame(user, cache.get(USER));
+    }
+
+    @Test
+    void shouldInvalidateByUsername() {
+        CredentialCache cache = new CredentialCache(60_000, 10);
+        cache.put(ADMIN, admin);
+        cache.put(USER, user);
+
+        cache.invalidate("admin");
+
+        assertNull(cache.get(ADMIN));
+        assertSame(user, cache.get(USER));
+    }
+
+    @Test
+    void shouldCacheNothingWhenDisabled() {
+        CredentialCache cache = new CredentialCache(0, 10);
+        cache.put(ADMIN, admin);
+
+        assertFalse(cache.isEnabled());
+        assertNull(cache.get(ADMIN));
+    }
+}
@@ -0,0 +1,44 @@
+package com.iimmersao.springmimic.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings(value = "unused")
+class ObjectPoolTest {
+
+    private final AtomicInteger created = new AtomicInteger();
+    private final ObjectPool<Object> pool = new ObjectPool<>(2, () -> {
+        created.incrementAndGet();
+        return new Object();
+    });
+
+    @Test
+    void shouldReuseReleasedObjectOnAnotherThread() throws Exception {
+        Object first = pool.acquire();
+        pool.release(first);
+
+        Object[] borrowed = new Object[1];
+        Thread thread = Thread.ofVirtual().start(() -> borrowed[0] = pool.acquire());
+        thread.join();
+
+        assertSame(first, borrowed[0]);
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    void shouldDropObjectsBeyondMaxPooled() {
+        Object a = pool.acquire();
+        Object b = pool.acquire();
+        Object c = pool.acquire();
+
+        pool.release(a);
+        pool.release(b);
+        pool.release(c);
+
+        assertEquals(3, created.get());
+        assertEquals(2, pool.getPooledCount());
+    }
+}
@@ -0,0 +1,47 @@
+package com.iimmersao.springmimic.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings(value = "unused")
+class Pbkdf2PasswordHasherTest {
+
+    private final Pbkdf2PasswordHasher hasher = new Pbkdf2PasswordHasher(1000);
+
+    @Test
+    void shouldMatchOnlyTheHashedPassword() {
+        String hash = hasher.hash("secret");
+
+        assertTrue(hash.startsWith("pbkdf2-sha256$1000$"));
+        assertTrue(hasher.matches("secret", hash));
+        assertFalse(hasher.matches("Secret", hash));
+        assertNotEquals(hash, hasher.hash("secret"));
+    }
+
+    @Test
+    void shouldVerifyOlderHashesWithTheirOwnIterationCount() {
+        String oldHash = new Pbkdf2PasswordHasher(500).hash("secret");
+
+        assertTrue(hasher.matches("secret", oldHash));
+        assertTrue(hasher.needsRehash(oldHash));
+        assertFalse(hasher.needsRehash(hasher.hash("secret")));
+    }
+
+    @Test
+    void shouldNeverMatchMalformedHashes() {
+        assertFalse(hasher.matches("secret", "secret"));
+        assertFalse(hasher.matches("secret", "pbkdf2-sha256$x$y$z"));
+        assertFalse(hasher.matches("secret", null));
+    }
+
+    @Test
+    void shouldRecordHashTimes() {
+        hasher.hash("secret");
+        hasher.hash("secret");
+
+        assertEquals(2, hasher.getHashCount());
+        assertTrue(hasher.getTotalHashNanos() >= hasher.getMaxHashNanos());
+        assertTrue(hasher.getAverageHashMillis() > 0);
+    }
+}
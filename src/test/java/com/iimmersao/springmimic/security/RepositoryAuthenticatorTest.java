@@ -0,0 +1,64 @@
+package com.iimmersao.springmimic.security;
+
+import com.iimmersao.springmimic.exceptions.UnauthorizedException;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings(value = "unused")
+class RepositoryAuthenticatorTest {
+
+    record Account(String getUsername, String getPasswordHash, Set<String> getRoles) implements UserAccount {
+    }
+
+    private final Pbkdf2PasswordHasher hasher = new Pbkdf2PasswordHasher(1000);
+    private final Map<String, Account> accounts = new HashMap<>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private RepositoryAuthenticator authenticator(long ttlMillis) {
+        accounts.put("ann", new Account("ann", hasher.hash("secret"), Set.of("ROLE_USER")));
+        return new RepositoryAuthenticator(username -> {
+            loads.incrementAndGet();
+            return Optional.ofNullable(accounts.get(username));
+        }, hasher, ttlMillis, 100);
+    }
+
+    @Test
+    void shouldAuthenticateWithStoredHash() {
+        UserDetails user = authenticator(5000).authenticate("ann", "secret");
+
+        assertEquals("ann", user.getUsername());
+        assertEquals(Set.of("ROLE_USER"), user.getRoles());
+    }
+
+    @Test
+    void shouldRejectWrongPasswordAndUnknownUser() {
+        RepositoryAuthenticator authenticator = authenticator(5000);
+        long hashesBefore = hasher.getHashCount();
+
+        assertThrows(UnauthorizedException.class, () -> authenticator.authenticate("ann", "wrong"));
+        assertThrows(UnauthorizedException.class, () -> authenticator.authenticate("bob", "secret"));
+        // Unknown users cost a hash too
+        assertEquals(hashesBefore + 2, hasher.getHashCount());
+    }
+
+    @Test
+    void shouldLoadUserOncePerTtl() throws Exception {
+        RepositoryAuthenticator authenticator = authenticator(50);
+
+        authenticator.authenticate("ann", "secret");
+        authenticator.authenticate("ann", "secret");
+        assertEquals(1, loads.get());
+        assertEquals(1, authenticator.getCacheHits());
+
+        Thread.sleep(80);
+        authenticator.authenticate("ann", "secret");
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,92 @@
+package com.iimmersao.springmimic.security;
+
+import com.iimmersao.springmimic.exceptions.UnauthorizedException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings(value = "unused")
+class TokenServiceTest {
+
+    private static byte[] secret(int fill) {
+        byte[] secret = new byte[32];
+        Arrays.fill(secret, (byte) fill);
+        return secret;
+    }
+
+    private final TokenService tokens = new TokenService(secret(1), 60);
+
+    @Test
+    void shouldRoundTripUsernameAndRoles() {
+        String token = tokens.issue(new UserDetails("ann:smith", Set.of("ROLE_ADMIN", "ROLE_USER")));
+
+        UserDetails user = tokens.verify(token);
+
+        assertEquals("ann:smith", user.getUsername());
+        assertEquals(Set.of("ROLE_ADMIN", "ROLE_USER"), user.getRoles());
+    }
+
+    @Test
+    void shouldRejectTokenSignedWithAnotherKey() {
+        String token = new TokenService(secret(2), 60).issue(new UserDetails("ann", Set.of("ROLE_USER")));
+
+        assertThrows(UnauthorizedException.class, () -> tokens.verify(token));
+    }
+
+    @Test
+    void shouldRejectTamperedPayload() {
+        String token = tokens.issue(new UserDetails("ann", Set.of("ROLE_USER")));
+        String forged = tokens.issue(new UserDetails("ann", Set.of("ROLE_ADMIN")));
+        String spliced = forged.substring(0, forged.indexOf('.')) + token.substring(token.indexOf('.'));
+
+        assertThrows(UnauthorizedException.class, () -> tokens.verify(spliced));
+        assertThrows(UnauthorizedException.class, () -> tokens.verify("not-a-token"));
+    }
+
+    @Test
+    void shouldRejectExpiredToken() {
+        String token = new TokenService(secret(1), -1).issue(new UserDetails("ann", Set.of()));
+
+        UnauthorizedException e = assertThrows(UnauthorizedException.class, () -> tokens.verify(token));
+        assertEquals("Token expired", e.getMessage());
+    }
+
+    @Test
+    void shouldRequireLongEnoughSecret() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenService(new byte[16], 60));
+    }
+
+    @Test
+    void shouldVerifyConcurrentlyOnNewThreadsReusingPooledMacs() throws Exception {
+        String token = tokens.issue(new UserDetails("ann", Set.of("ROLE_USER")));
+        String malformed = token.substring(0, token.length() - 1) + "!";
+
+        // Each verification runs on a new virtual thread, as connections do with server.executor=virtual
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 200; i++) {
+                boolean bad = i % 10 == 0;
+                results.add(executor.submit(() -> {
+                    try {
+                        return tokens.verify(bad ? malformed : token).getUsername();
+                    } catch (UnauthorizedException e) {
+                        return "rejected";
+                    }
+                }));
+            }
+        }
+
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i % 10 == 0 ? "rejected" : "ann", results.get(i).get());
+        }
+        assertEquals("ann", tokens.verify(token).getUsername());
+    }
+}
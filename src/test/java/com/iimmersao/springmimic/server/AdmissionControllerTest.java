@@ -0,0 +1,79 @@
+package com.iimmersao.springmimic.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.iimmersao.springmimic.server.AdmissionController.Admission.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings(value = "unused")
+class AdmissionControllerTest {
+
+    private AdmissionController controller(int maxInFlight, int queueSize, long queueTimeoutMillis) {
+        return new AdmissionController(maxInFlight, queueSize, queueTimeoutMillis, 2,
+                List.of("/health", "/admin/"), List.of("/reports"));
+    }
+
+    @Test
+    void shouldBypassWhenDisabled() {
+        AdmissionController admission = controller(0, 0, 0);
+        assertEquals(BYPASSED, admission.admit("/users"));
+    }
+
+    @Test
+    void shouldRejectWhenSaturatedAndNoQueue() {
+        AdmissionController admission = controller(1, 0, 0);
+
+        assertEquals(ADMITTED, admission.admit("/users"));
+        assertEquals(REJECTED, admission.admit("/users"));
+        assertEquals(1, admission.getRejectedCount());
+    }
+
+    @Test
+    void shouldLetCriticalPathsBypassWhenSaturated() {
+        AdmissionController admission = controller(1, 0, 0);
+        admission.admit("/users");
+
+        assertEquals(BYPASSED, admission.admit("/health"));
+        assertEquals(BYPASSED, admission.admit("/admin/users"));
+        assertEquals(REJECTED, admission.admit("/healthz"));
+    }
+
+    @Test
+    void shouldShedLowPriorityWithoutQueueing() {
+        AdmissionController admission = controller(1, 10, 1000);
+        admission.admit("/users");
+
+        long start = System.nanoTime();
+        assertEquals(REJECTED, admission.admit("/reports/daily"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500);
+    }
+
+    @Test
+    void shouldRejectAfterQueueTimeout() {
+        AdmissionController admission = controller(1, 1, 50);
+        admission.admit("/users");
+
+        assertEquals(REJECTED, admission.admit("/users"));
+        assertEquals(0, admission.getWaiting());
+    }
+
+    @Test
+    void shouldAdmitQueuedRequestWhenSlotIsReleased() throws Exception {
+        AdmissionController admission = controller(1, 1, 2000);
+        AdmissionController.Admission first = admission.admit("/users");
+
+        CompletableFuture<AdmissionController.Admission> queued =
+                CompletableFuture.supplyAsync(() -> admission.admit("/users"));
+        while (admission.getWaiting() == 0) {
+            Thread.sleep(5);
+        }
+        admission.release(first);
+
+        assertEquals(ADMITTED, queued.get(2, TimeUnit.SECONDS));
+        assertEquals(1, admission.getInFlight());
+    }
+}
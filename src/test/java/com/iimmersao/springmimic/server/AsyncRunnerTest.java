@@ -0,0 +1,108 @@
+package com.iimmersao.springmimic.server;
+
+import com.iimmersao.springmimic.core.ConfigLoader;
+import com.iimmersao.springmimic.routing.Port;
+import com.iimmersao.springmimic.routing.Router;
+import fi.iki.elonen.NanoHTTPD;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Field;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SuppressWarnings(value = "unused")
+class AsyncRunnerTest {
+
+    @Test
+    void shouldRejectAndCloseConnectionWhenPoolAndQueueAreFull() throws Exception {
+        BoundedPoolAsyncRunner runner = new BoundedPoolAsyncRunner(1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            runner.exec(blockingHandler(runner, started, release));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            runner.exec(blockingHandler(runner, new CountDownLatch(1), release));
+            assertEquals(1, runner.getQueuedConnections());
+
+            Socket socket = new Socket();
+            NanoHTTPD server = new NanoHTTPD(0) { };
+            runner.exec(server.new ClientHandler(new ByteArrayInputStream(new byte[0]), socket));
+
+            assertTrue(socket.isClosed());
+            assertEquals(1, runner.getRejectedConnections());
+            assertEquals(2, runner.getActiveConnections());
+        } finally {
+            release.countDown();
+        }
+        awaitNoActiveConnections(runner);
+        assertEquals(3, runner.getPeakConnections());
+        runner.shutdown();
+    }
+
+    @Test
+    void shouldCountConnectionsUntilClosed() throws Exception {
+        for (TrackingAsyncRunner runner : List.of(new ThreadPerConnectionAsyncRunner(),
+                new VirtualThreadAsyncRunner(), new BoundedPoolAsyncRunner(4, 4))) {
+            CountDownLatch started = new CountDownLatch(3);
+            CountDownLatch release = new CountDownLatch(1);
+            for (int i = 0; i < 3; i++) {
+                runner.exec(blockingHandler(runner, started, release));
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS), runner.getName());
+            assertEquals(3, runner.getActiveConnections(), runner.getName());
+
+            release.countDown();
+            awaitNoActiveConnections(runner);
+            assertEquals(3, runner.getPeakConnections(), runner.getName());
+            runner.shutdown();
+        }
+    }
+
+    @Test
+    void shouldFailToStartWithUnknownExecutor() throws Exception {
+        ConfigLoader config = new ConfigLoader() {
+            @Override
+            public String get(String key, String defaultValue) {
+                return key.equals("server.executor") ? "fibers" : super.get(key, defaultValue);
+            }
+        };
+        WebServer server = new WebServer(new Port(0), mock(Router.class));
+        Field configField = WebServer.class.getDeclaredField("configLoader");
+        configField.setAccessible(true);
+        configField.set(server, config);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> server.start(1000, true));
+        assertTrue(e.getMessage().contains("fibers"));
+        assertFalse(server.isAlive());
+    }
+
+    // Holds its thread until released, then reports itself closed as NanoHTTPD's handlers do
+    private static NanoHTTPD.ClientHandler blockingHandler(TrackingAsyncRunner runner, CountDownLatch started,
+                                                           CountDownLatch release) {
+        NanoHTTPD.ClientHandler handler = mock(NanoHTTPD.ClientHandler.class);
+        doAnswer(invocation -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } finally {
+                runner.closed(handler);
+            }
+            return null;
+        }).when(handler).run();
+        return handler;
+    }
+
+    private static void awaitNoActiveConnections(TrackingAsyncRunner runner) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (runner.getActiveConnections() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, runner.getActiveConnections(), runner.getName());
+    }
+}
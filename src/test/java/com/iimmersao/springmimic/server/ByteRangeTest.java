@@ -0,0 +1,44 @@
+package com.iimmersao.springmimic.server;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings(value = "unused")
+class ByteRangeTest {
+
+    @Test
+    void shouldParseClosedRange() {
+        ByteRange range = ByteRange.parse("bytes=100-199", 1000);
+        assertEquals(new ByteRange(100, 199), range);
+        assertEquals(100, range.length());
+        assertEquals("bytes 100-199/1000", range.contentRange(1000));
+    }
+
+    @Test
+    void shouldParseOpenAndSuffixRanges() {
+        assertEquals(new ByteRange(900, 999), ByteRange.parse("bytes=900-", 1000));
+        assertEquals(new ByteRange(990, 999), ByteRange.parse("bytes=-10", 1000));
+        assertEquals(new ByteRange(0, 999), ByteRange.parse("bytes=-5000", 1000));
+    }
+
+    @Test
+    void shouldClampEndToLength() {
+        assertEquals(new ByteRange(500, 999), ByteRange.parse("bytes=500-5000", 1000));
+    }
+
+    @Test
+    void shouldReportUnsatisfiableRange() {
+        assertSame(ByteRange.UNSATISFIABLE, ByteRange.parse("bytes=1000-", 1000));
+        assertSame(ByteRange.UNSATISFIABLE, ByteRange.parse("bytes=-0", 1000));
+    }
+
+    @Test
+    void shouldIgnoreMalformedOrMultipleRanges() {
+        assertNull(ByteRange.parse(null, 1000));
+        assertNull(ByteRange.parse("items=0-1", 1000));
+        assertNull(ByteRange.parse("bytes=abc-", 1000));
+        assertNull(ByteRange.parse("bytes=20-10", 1000));
+        assertNull(ByteRange.parse("bytes=0-1,5-6", 1000));
+    }
+}
@@ -0,0 +1,70 @@
+package com.iimmersao.springmimic.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings(value = "unused")
+class MappedFileInputStreamTest {
+
+    @Test
+    void shouldReadRequestedRegionAcrossWindows() throws Exception {
+        int size = (int) MappedFileInputStream.WINDOW_SIZE + 4096;
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) (i % 251);
+        }
+        Path file = Files.createTempFile("mapped", ".bin");
+        Files.write(file, data);
+
+        long offset = MappedFileInputStream.WINDOW_SIZE - 100;
+        try (InputStream in = new MappedFileInputStream(file, offset, 1000)) {
+            byte[] read = in.readAllBytes();
+            assertArrayEquals(Arrays.copyOfRange(data, (int) offset, (int) offset + 1000), read);
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    void shouldReadRangeEndingAtEndOfFile() throws Exception {
+        Path file = Files.createTempFile("mapped", ".txt");
+        Files.writeString(file, "0123456789");
+
+        try (InputStream in = new MappedFileInputStream(file, 6, 4)) {
+            assertEquals('6', in.read());
+            assertEquals("789", new String(in.readAllBytes()));
+        }
+    }
+
+    @Test
+    void shouldRejectFileShorterThanRange() throws Exception {
+        Path file = Files.createTempFile("mapped", ".txt");
+        Files.writeString(file, "0123456789");
+
+        assertThrows(IOException.class, () -> new MappedFileInputStream(file, 6, 100));
+    }
+
+    @Test
+    void shouldFailReadOfFileTruncatedWhileOpen() throws Exception {
+        Path file = Files.createTempFile("mapped", ".txt");
+        Files.writeString(file, "0123456789");
+
+        try (InputStream in = new MappedFileInputStream(file, 0, 10)) {
+            assertEquals('0', in.read());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(2);
+            }
+
+            assertThrows(UncheckedIOException.class, in::readAllBytes);
+        }
+    }
+}
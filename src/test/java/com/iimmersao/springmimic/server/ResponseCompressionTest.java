@@ -0,0 +1,90 @@
+package com.iimmersao.springmimic.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings(value = "unused")
+class ResponseCompressionTest {
+
+    private final ResponseCompression compression =
+            new ResponseCompression(true, 100, 6, List.of("text/", "application/json"));
+
+    private static String gunzip(byte[] data) throws Exception {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void shouldParseAcceptEncoding() {
+        assertTrue(ResponseCompression.acceptsGzip("gzip, deflate, br"));
+        assertTrue(ResponseCompression.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+        assertTrue(ResponseCompression.acceptsGzip("*"));
+        assertFalse(ResponseCompression.acceptsGzip("gzip;q=0"));
+        assertFalse(ResponseCompression.acceptsGzip("br"));
+        assertFalse(ResponseCompression.acceptsGzip(null));
+    }
+
+    @Test
+    void shouldApplyThresholdAndAllowlist() {
+        assertTrue(compression.isCompressible("application/json; charset=UTF-8", 500));
+        assertTrue(compression.isCompressible("text/css", -1));
+        assertFalse(compression.isCompressible("text/css", 99));
+        assertFalse(compression.isCompressible("image/png", 5000));
+        assertFalse(compression.isCompressible(null, 5000));
+        assertFalse(compression.isCompressible("text/event-stream", -1));
+        assertFalse(new ResponseCompression(false, 0, 6, List.of("text/")).isCompressible("text/html", 5000));
+    }
+
+    @Test
+    void shouldCompressWholeBodyOnlyWhenItShrinks() throws Exception {
+        byte[] repetitive = "{\"name\":\"value\"}".repeat(100).getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = compression.compress(repetitive);
+
+        assertNotNull(compressed);
+        assertEquals(new String(repetitive, StandardCharsets.UTF_8), gunzip(compressed));
+        assertNull(compression.compress(new byte[] {1, 2, 3}));
+    }
+
+    @Test
+    void shouldCompressStreamAndRecordMetrics() throws Exception {
+        String body = "line of text that repeats\n".repeat(5000);
+        InputStream source = new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+
+        byte[] wire = compression.compressing(source).readAllBytes();
+
+        assertEquals(body, gunzip(wire));
+        assertEquals(1, compression.getCompressedResponses());
+        assertEquals(body.length(), compression.getBytesIn());
+        assertEquals(wire.length, compression.getBytesOut());
+        assertTrue(compression.getCompressionRatio() < 0.1);
+        assertTrue(compression.getCompressionNanos() > 0);
+    }
+
+    @Test
+    void shouldCloseSourceWhenAbandonedPartWay() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        InputStream source = new ByteArrayInputStream("x".repeat(100_000).getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+
+        InputStream gzip = compression.compressing(source);
+        assertTrue(gzip.read(new byte[16]) > 0);
+        gzip.close();
+        gzip.close();
+
+        assertTrue(closed.get());
+        assertEquals(0, compression.getCompressedResponses());
+    }
+}
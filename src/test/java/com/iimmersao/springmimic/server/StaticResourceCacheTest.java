@@ -0,0 +1,131 @@
+package com.iimmersao.springmimic.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings(value = "unused")
+class StaticResourceCacheTest {
+
+    private Path root;
+    private StaticResourceCache cache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        root = Files.createTempDirectory("static-cache-test");
+        Files.writeString(root.resolve("index.html"), "<h1>Index</h1>");
+        Files.writeString(root.resolve("a.css"), "a".repeat(40));
+        Files.writeString(root.resolve("b.css"), "b".repeat(40));
+        Files.writeString(root.resolve("large.js"), "x".repeat(200));
+        cache = new StaticResourceCache(root, 100, 64);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        cache.close();
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromMemory() throws Exception {
+        StaticResourceCache.Resource first = cache.lookup("/index.html");
+        StaticResourceCache.Resource second = cache.lookup("/index.html");
+
+        assertSame(first, second);
+        assertEquals("<h1>Index</h1>", new String(first.content()));
+        assertEquals(14, first.length());
+        assertEquals("text/html", first.mimeType());
+        assertTrue(first.etag().startsWith("\""), "strong ETag expected: " + first.etag());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    void shouldResolveDirectoryToIndex() throws Exception {
+        StaticResourceCache.Resource resource = cache.lookup("/");
+        assertNotNull(resource);
+        assertEquals(root.toRealPath().resolve("index.html"), resource.file());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedWhenOverBudget() throws Exception {
+        cache.lookup("/a.css");
+        cache.lookup("/index.html");
+        cache.lookup("/a.css");
+        cache.lookup("/b.css");
+
+        // 94 bytes cached in LRU order index, a, b; another 30 pushes out index and then a
+        Files.writeString(root.resolve("c.css"), "c".repeat(30));
+        cache.lookup("/c.css");
+
+        assertTrue(cache.getCachedBytes() <= 100);
+        assertEquals(2, cache.getEntryCount());
+        long hits = cache.getHits();
+        cache.lookup("/b.css");
+        assertEquals(hits + 1, cache.getHits());
+    }
+
+    @Test
+    void shouldNotBufferFilesAboveThreshold() throws Exception {
+        StaticResourceCache.Resource resource = cache.lookup("/large.js");
+
+        assertNull(resource.content());
+        assertEquals(200, resource.length());
+        assertEquals("\"c8-", resource.etag().substring(0, 4));
+        assertEquals(0, cache.getEntryCount());
+    }
+
+    @Test
+    void shouldRejectMissingFilesAndTraversal() throws Exception {
+        Files.writeString(root.getParent().resolve("outside-" + root.getFileName() + ".txt"), "secret");
+
+        assertNull(cache.lookup("/missing.html"));
+        assertNull(cache.lookup("/../outside-" + root.getFileName() + ".txt"));
+        assertNull(cache.lookup("/%2e%2e/outside-" + root.getFileName() + ".txt"));
+    }
+
+    @Test
+    void shouldShareEntryBetweenEquivalentUris() throws Exception {
+        Files.createDirectory(root.resolve("sub"));
+
+        StaticResourceCache.Resource direct = cache.lookup("/a.css");
+        StaticResourceCache.Resource dotted = cache.lookup("/sub/../a.css");
+        StaticResourceCache.Resource doubled = cache.lookup("//./a.css");
+
+        assertSame(direct, dotted);
+        assertSame(direct, doubled);
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    void shouldReloadAfterInvalidation() throws Exception {
+        String etag = cache.lookup("/index.html").etag();
+        Files.writeString(root.resolve("index.html"), "<h1>Changed</h1>");
+
+        cache.invalidate(root.toRealPath().resolve("index.html"));
+        StaticResourceCache.Resource reloaded = cache.lookup("/index.html");
+
+        assertEquals("<h1>Changed</h1>", new String(reloaded.content()));
+        assertNotEquals(etag, reloaded.etag());
+    }
+
+    @Test
+    void shouldPrecompressCompressibleFilesWhenCaching() throws Exception {
+        ResponseCompression compression = new ResponseCompression(true, 10, 6, List.of("text/css"));
+        try (StaticResourceCache compressing = new StaticResourceCache(root, 1000, 64, compression)) {
+            StaticResourceCache.Resource css = compressing.lookup("/a.css");
+            StaticResourceCache.Resource html = compressing.lookup("/index.html");
+
+            assertNotNull(css.gzipContent());
+            assertTrue(css.gzipContent().length < css.content().length);
+            assertNotEquals(css.etag(), css.gzipEtag());
+            assertNull(html.gzipContent());
+            assertEquals(1, compression.getCompressedResponses());
+        }
+    }
+}
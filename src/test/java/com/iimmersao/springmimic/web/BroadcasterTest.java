@@ -0,0 +1,87 @@
+package com.iimmersao.springmimic.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings(value = "unused")
+class BroadcasterTest {
+
+    private static final long NO_WAIT = 0;
+
+    @Test
+    void shouldDeliverEventsToEverySubscriberInOrder() throws Exception {
+        Broadcaster broadcaster = new Broadcaster(4);
+        EventStream first = broadcaster.subscribe();
+        EventStream second = broadcaster.subscribe();
+
+        assertEquals(2, broadcaster.publish("a"));
+        assertEquals(2, broadcaster.publish(ServerSentEvent.of("update", "b")));
+
+        for (EventStream stream : new EventStream[]{first, second}) {
+            assertEquals("a", stream.next(NO_WAIT).data());
+            assertEquals("update", stream.next(NO_WAIT).event());
+            assertNull(stream.next(NO_WAIT));
+        }
+        assertEquals(2, broadcaster.getSubscriberCount());
+        assertEquals(2, broadcaster.getPublishedEvents());
+    }
+
+    @Test
+    void shouldEvictSlowSubscriberWithoutHoldingBackOthers() throws Exception {
+        Broadcaster broadcaster = new Broadcaster(2);
+        EventStream slow = broadcaster.subscribe();
+        EventStream fast = broadcaster.subscribe();
+
+        for (int i = 0; i < 3; i++) {
+            broadcaster.publish(i);
+            assertEquals(i, fast.next(NO_WAIT).data());
+        }
+
+        assertTrue(slow.isEvicted());
+        assertTrue(slow.isFinished());
+        assertNull(slow.next(NO_WAIT));
+        assertTrue(fast.isOpen());
+        assertEquals(1, broadcaster.getSubscriberCount());
+        assertEquals(1, broadcaster.getEvictions());
+        assertEquals(3, broadcaster.getDroppedEvents());
+    }
+
+    @Test
+    void shouldUnsubscribeWhenStreamCloses() throws Exception {
+        Broadcaster broadcaster = new Broadcaster(4);
+        EventStream stream = broadcaster.subscribe();
+        broadcaster.publish("last");
+
+        stream.close();
+
+        assertEquals(0, broadcaster.getSubscriberCount());
+        assertEquals(0, broadcaster.publish("after"));
+        // Events sent before closing are still written
+        assertFalse(stream.isFinished());
+        assertEquals("last", stream.next(NO_WAIT).data());
+        assertTrue(stream.isFinished());
+        assertEquals(0, broadcaster.getDroppedEvents());
+    }
+
+    @Test
+    void shouldWakeWaitingWriterWhenEventArrives() throws Exception {
+        Broadcaster broadcaster = new Broadcaster(4);
+        EventStream stream = broadcaster.subscribe();
+
+        CompletableFuture<ServerSentEvent> next = CompletableFuture.supplyAsync(() -> {
+            try {
+                return stream.next(TimeUnit.SECONDS.toNanos(10));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        broadcaster.publish("hello");
+
+        assertEquals("hello", next.get(5, TimeUnit.SECONDS).data());
+    }
+}
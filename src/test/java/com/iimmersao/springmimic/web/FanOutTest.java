@@ -0,0 +1,100 @@
+package com.iimmersao.springmimic.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings(value = "unused")
+class FanOutTest {
+
+    @Test
+    void shouldRunCallsConcurrentlyAndJoinTheirResults() throws Exception {
+        // Each call waits for all three to have started, so running them one by one would time out
+        CountDownLatch started = new CountDownLatch(3);
+        try (FanOut fanOut = new FanOut(Duration.ofSeconds(5))) {
+            FanOut.Task<String> a = fanOut.fork(() -> awaitOthers(started, "a"));
+            FanOut.Task<String> b = fanOut.fork(() -> awaitOthers(started, "b"));
+            FanOut.Task<Integer> c = fanOut.fork(() -> {
+                awaitOthers(started, "c");
+                return 3;
+            });
+            fanOut.join();
+
+            assertEquals("a", a.get());
+            assertEquals("b", b.get());
+            assertEquals(3, c.get());
+        }
+    }
+
+    @Test
+    void shouldThrowFirstFailureAndInterruptOtherCalls() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try (FanOut fanOut = new FanOut(Duration.ofSeconds(5))) {
+            FanOut.Task<String> slow = fanOut.fork(() -> {
+                try {
+                    Thread.sleep(10_000);
+                    return "slow";
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw e;
+                }
+            });
+            fanOut.fork(() -> {
+                throw new IllegalStateException("downstream failed");
+            });
+
+            IllegalStateException e = assertThrows(IllegalStateException.class, fanOut::join);
+            assertEquals("downstream failed", e.getMessage());
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+            assertThrows(IllegalStateException.class, slow::get);
+        }
+    }
+
+    @Test
+    void shouldTimeOutAtDeadline() {
+        try (FanOut fanOut = new FanOut(Duration.ofMillis(50))) {
+            fanOut.fork(() -> {
+                Thread.sleep(10_000);
+                return null;
+            });
+
+            long start = System.nanoTime();
+            assertThrows(TimeoutException.class, fanOut::join);
+            assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos());
+        }
+    }
+
+    @Test
+    void shouldWaitOnCloseForCallsIgnoringInterruption() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        FanOut fanOut = new FanOut(Duration.ofSeconds(5));
+        fanOut.fork(() -> {
+            started.countDown();
+            long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+            while (System.nanoTime() < end) {
+                Thread.onSpinWait();
+            }
+            finished.countDown();
+            return null;
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        fanOut.close();
+
+        assertEquals(0, finished.getCount());
+    }
+
+    private static String awaitOthers(CountDownLatch started, String value) throws Exception {
+        started.countDown();
+        if (!started.await(5, TimeUnit.SECONDS)) {
+            throw new TimeoutException("Calls did not run concurrently");
+        }
+        return value;
+    }
+}